@@ -0,0 +1,82 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 한 건씩 저장(saveAndFlush) vs JDBC 배치 저장(saveAllBatched)
+// - 연산 하나 = rows 건 저장. 저장 후 롤백해서 테이블 크기가 계속 커지지 않게 한다
+// - rows/s = rows * ops/s
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchInsertBenchmark {
+
+    @Param({"1000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:batch-benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "datajpa.sql.log.sample-rate=0",
+                        "logging.level.org.hibernate.SQL=warn")
+                .run();
+
+        memberRepository = context.getBean(MemberRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int saveAndFlush() {
+        List<Member> members = members();
+        return transaction.execute(status -> {
+            for (Member member : members) {
+                memberRepository.saveAndFlush(member); // INSERT 마다 DB 왕복
+            }
+            status.setRollbackOnly();
+            return members.size();
+        });
+    }
+
+    @Benchmark
+    public int saveAllBatched() {
+        List<Member> members = members();
+        return transaction.execute(status -> {
+            int saved = memberRepository.saveAllBatched(members);
+            status.setRollbackOnly();
+            return saved;
+        });
+    }
+
+    private List<Member> members() {
+        List<Member> members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("member" + i, i % 100));
+        }
+        return members;
+    }
+}
@@ -0,0 +1,134 @@
+package study.datajpa.benchmark;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// MemberRepository의 회원 + 팀 조회 방법 비교
+// - 페치 조인 / findAll() + @EntityGraph / JPQL + @EntityGraph / NamedEntityGraph / 지연 로딩
+// - 처리량(ops/s), 연산당 할당량(-prof gc), SQL 실행 수(statements)를 측정한다
+//   statements는 초당 실행 수로 나오므로 ops/s로 나누면 연산당 SQL 실행 수가 된다
+// - 데이터 크기는 -p members=100,10000 -p teams=10 처럼 바꿀 수 있다
+// - 2차 캐시는 꺼서 조회 전략 자체의 비용만 측정한다
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FetchStrategyBenchmark {
+
+    private static final String USERNAME = "member";
+
+    @Param({"100", "1000"})
+    public int members;
+
+    @Param({"10"})
+    public int teams;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private Statistics statistics;
+
+    // SQL 실행 수
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StatementCount {
+        public long statements;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "datajpa.sql.log.sample-rate=0",
+                        "logging.level.org.hibernate.SQL=warn")
+                .run();
+
+        memberRepository = context.getBean(MemberRepository.class);
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.deleteAllInBatch();
+            teamRepository.deleteAllInBatch();
+
+            List<Team> savedTeams = new ArrayList<>();
+            for (int i = 0; i < teams; i++) {
+                savedTeams.add(teamRepository.save(new Team("team" + i)));
+            }
+            List<Member> seed = new ArrayList<>();
+            for (int i = 0; i < members; i++) {
+                seed.add(new Member(USERNAME, i % 100, savedTeams.get(i % teams)));
+            }
+            memberRepository.saveAllBatched(seed);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long fetchJoin(StatementCount count) {
+        return measure(count, () -> memberRepository.findMemberFetchJoin());
+    }
+
+    @Benchmark
+    public long entityGraphFindAll(StatementCount count) {
+        return measure(count, () -> memberRepository.findAll());
+    }
+
+    @Benchmark
+    public long entityGraphJpql(StatementCount count) {
+        return measure(count, () -> memberRepository.findMemberEntityGraph());
+    }
+
+    @Benchmark
+    public long namedEntityGraph(StatementCount count) {
+        return measure(count, () -> memberRepository.findEnityGraphByUsername(USERNAME));
+    }
+
+    @Benchmark
+    public long lazyLoading(StatementCount count) {
+        return measure(count, () -> memberRepository.findMemberCustom());
+    }
+
+    // 조회한 회원의 팀 이름까지 모두 읽어야 지연 로딩 비용이 드러난다
+    private long measure(StatementCount count, Supplier<List<Member>> query) {
+        long before = statistics.getPrepareStatementCount();
+        Long result = readOnlyTransaction.execute(status -> {
+            long length = 0;
+            for (Member member : query.get()) {
+                length += member.getTeam().getName().length();
+            }
+            return length;
+        });
+        count.statements += statistics.getPrepareStatementCount() - before;
+        return result;
+    }
+}
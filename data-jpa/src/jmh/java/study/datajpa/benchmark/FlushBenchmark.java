@@ -0,0 +1,104 @@
+package study.datajpa.benchmark;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 많은 엔티티를 조회한 트랜잭션의 flush 비용
+// - 바이트코드 향상(enableDirtyTracking) 없이는 flush 때 영속성 컨텍스트의 모든 엔티티를 필드 단위로 스냅샷과 비교한다
+// - 향상된 엔티티는 바뀐 필드를 스스로 기록하므로 바뀌지 않은 엔티티의 비교 비용이 거의 없다
+// - 향상 전후 비교 : build.gradle 의 -PnoEnhance 참고
+// - 조회 비용은 같으므로 두 결과의 차이가 dirty checking 비용이다. 변경은 flush 후 롤백해서 데이터가 그대로 유지된다
+// - statements : 실행된 UPDATE 수 (@DynamicUpdate 로 바뀐 컬럼만 UPDATE)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FlushBenchmark {
+
+    @Param({"1000", "10000"})
+    public int members;
+
+    @Param({"0", "10"})
+    public int changed; // 변경할 회원 수
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StatementCount {
+        public long statements;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:flush-benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "datajpa.sql.log.sample-rate=0",
+                        "logging.level.org.hibernate.SQL=warn")
+                .run();
+
+        memberRepository = context.getBean(MemberRepository.class);
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            memberRepository.deleteAllInBatch();
+            teamRepository.deleteAllInBatch();
+
+            Team team = teamRepository.save(new Team("team"));
+            List<Member> seed = new ArrayList<>();
+            for (int i = 0; i < members; i++) {
+                seed.add(new Member("member" + i, i % 100, team));
+            }
+            memberRepository.saveAllBatched(seed);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // 쓰기 트랜잭션에서 전체 조회 -> changed 명만 수정 -> flush
+    @Benchmark
+    public int loadModifyFlush(StatementCount count) {
+        long before = statistics.getEntityUpdateCount();
+        Integer loaded = transaction.execute(status -> {
+            List<Member> found = memberRepository.findMemberCustom();
+            for (int i = 0; i < changed; i++) {
+                Member member = found.get(i * found.size() / changed);
+                member.setAge(member.getAge() + 1);
+            }
+            memberRepository.flush();
+            status.setRollbackOnly();
+            return found.size();
+        });
+        count.statements += statistics.getEntityUpdateCount() - before;
+        return loaded;
+    }
+}
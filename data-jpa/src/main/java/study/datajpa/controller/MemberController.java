@@ -1,33 +1,55 @@
 package study.datajpa.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.dto.CursorResult;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.MemberExportService;
+import study.datajpa.service.MemberNearCache;
 
 import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberNearCache memberNearCache;
+
+    @Value("${spring.data.web.pageable.max-page-size:2000}")
+    private int maxPageSize;
 
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id")Long id){
-        Member member = memberRepository.findById(id).get();
-        return member.getUsername();
+        return memberNearCache.findById(id) // 자주 조회되는 회원은 DB를 거치지 않는다
+                .map(MemberDto::getUsername)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "회원이 없습니다."));
     }
 
+    // 도메인 클래스 컨버터(@PathVariable("id") Member)는 매번 findById 하므로 id를 받아서 MemberNearCache에서 조회
     @GetMapping("/members2/{id}")
-    public String findMember2(@PathVariable("id")Member member){
-        return member.getUsername();
+    public String findMember2(@PathVariable("id")Long id){
+        return memberNearCache.findById(id)
+                .map(MemberDto::getUsername)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "회원이 없습니다."));
     }
 
 
@@ -39,18 +61,56 @@ public class MemberController {
 
     @GetMapping("/members") // 엔티티를 dto로 감싸서 반환
     public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable){
-        Page<Member> page = memberRepository.findAll(pageable);
+//        Page<Member> page = memberRepository.findMemberPage(pageable);
 //        return page.map(member -> new MemberDto(member));
-        return page.map(MemberDto::new);// 위와 같은 메소드
+//        return page.map(MemberDto::new);// 위와 같은 메소드
+        return memberRepository.findMemberDtoPage(pageable); // DTO로 바로 조회. totalCount는 캐시 또는 추정치 (totalEstimated)
     }
 
+    // 무한 스크롤 : 전체 개수 없이 다음 페이지가 있는지(hasNext)만 알려준다. count 쿼리를 실행하지 않는다
+    @GetMapping("/members/slice")
+    public Slice<MemberDto> slice(@PageableDefault(size = 5) Pageable pageable){
+        return memberRepository.findSliceBy(pageable).map(MemberDto::new);
+    }
+
+    // 커서 기반 페이징 : /members?after=&size=5 로 시작해서 응답의 nextCursor를 after로 넘긴다
+    // - count 쿼리가 없고, 깊은 페이지도 offset 만큼 버리는 비용이 없다
+    @GetMapping(value = "/members", params = "after")
+    public CursorResult<MemberDto> listAfter(@RequestParam("after") String after,
+                                             @RequestParam(value = "size", defaultValue = "5") int size) {
+        MemberCursor cursor;
+        try {
+            cursor = MemberCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 커서입니다.", e);
+        }
 
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        List<Member> members = memberRepository.findAllAfter(cursor, limit + 1); // 한 건 더 조회해서 다음 페이지 여부를 판단
+
+        boolean hasNext = members.size() > limit;
+        List<MemberDto> content = members.stream()
+                .limit(limit)
+                .map(MemberDto::new)
+                .collect(Collectors.toList());
+        String nextCursor = hasNext ? MemberCursor.of(members.get(limit - 1)).encode() : null;
+        return new CursorResult<>(content, nextCursor);
+    }
+
+    // 회원 전체 내보내기 (NDJSON)
+    // - 응답은 별도 스레드에서 쓰여지므로 트랜잭션은 MemberExportService 안에서 연다
+    @GetMapping(value = "/members/export", produces = "application/x-ndjson")
+    public StreamingResponseBody export() {
+        return memberExportService::exportNdjson;
+    }
 
     @PostConstruct
     public void init(){
+        List<Member> members = new ArrayList<>();
         for(int i = 0; i<100; i ++){
-            memberRepository.save(new Member("user" + i,i));
+            members.add(new Member("user" + i,i));
         }
+        memberRepository.saveAllBatched(members);
 
     }
 
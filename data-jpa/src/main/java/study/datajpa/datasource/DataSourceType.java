@@ -0,0 +1,6 @@
+package study.datajpa.datasource;
+
+public enum DataSourceType {
+    PRIMARY, // 쓰기 + 일반 트랜잭션
+    REPLICA  // @Transactional(readOnly = true)
+}
@@ -0,0 +1,59 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// 읽기 / 쓰기 데이터소스 분리 (datajpa.replica.enabled=true 일 때만)
+// - primaryDataSource : spring.datasource.* (기존 설정 그대로)
+// - replicaDataSource : datajpa.replica.hikari.*
+// - dataSource : LazyConnectionDataSourceProxy -> ReplicationRoutingDataSource -> primary / replica
+// 주의 : 레플리카는 복제 지연이 있으므로, 방금 쓴 데이터를 바로 읽어야 하는 곳은 readOnly 트랜잭션을 쓰면 안 된다
+@Configuration
+@ConditionalOnProperty(name = "datajpa.replica.enabled", havingValue = "true")
+public class ReplicationDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datajpa.replica.hikari")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // JPA / JdbcTemplate 이 사용하는 dataSource
+    // - 하이버네이트는 트랜잭션을 시작할 때 커넥션을 얻으므로, 실제 커넥션은 첫 SQL 실행 시점까지 미뤄야 readOnly 여부로 라우팅할 수 있다
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(DataSourceType.PRIMARY, primary);
+        targets.put(DataSourceType.REPLICA, replica);
+
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 커넥션을 얻는 시점의 트랜잭션이 readOnly 이면 레플리카, 아니면 프라이머리로 보낸다
+// - 트랜잭션 밖(OSIV 지연 로딩 등)에서 얻는 커넥션은 프라이머리
+// - 트랜잭션 시작 시점에는 아직 readOnly 플래그가 설정되기 전이므로 LazyConnectionDataSourceProxy와 함께 써야 한다
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? DataSourceType.REPLICA
+                : DataSourceType.PRIMARY;
+    }
+}
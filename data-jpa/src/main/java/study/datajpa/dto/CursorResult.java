@@ -0,0 +1,23 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// 커서 기반 페이징 응답
+// - Page와 달리 전체 개수(totalCount)를 계산하지 않고, 다음 페이지를 조회할 커서만 내려준다
+// - nextCursor가 null이면 마지막 페이지
+@Getter
+public class CursorResult<T> {
+    private final List<T> content;
+    private final String nextCursor;
+
+    public CursorResult(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+}
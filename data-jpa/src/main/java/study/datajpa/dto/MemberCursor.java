@@ -0,0 +1,44 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+import study.datajpa.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// 키셋(seek) 페이징에서 "마지막으로 본 위치"를 나타내는 커서
+// - 정렬 키(username) + 식별자(member_id)를 함께 가지고 있어야 username이 같은 회원도 누락 없이 이어서 조회할 수 있다
+@Getter
+public class MemberCursor {
+    private final String username;
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        this.username = username;
+        this.id = id;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getUsername(), member.getId());
+    }
+
+    // 클라이언트에게는 내부 구조를 드러내지 않는 불투명(opaque) 토큰으로 내보낸다
+    public String encode() {
+        String raw = id + ":" + username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 빈 토큰은 첫 페이지를 의미한다
+    public static MemberCursor decode(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("잘못된 커서입니다. token = " + token);
+        }
+        return new MemberCursor(raw.substring(separator + 1), Long.valueOf(raw.substring(0, separator)));
+    }
+}
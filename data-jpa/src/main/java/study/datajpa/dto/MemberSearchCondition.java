@@ -0,0 +1,14 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 회원 검색 조건. 비어있는 조건은 where 절에서 빠진다
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberSearchCondition {
+    private String username;
+    private String teamName;
+}
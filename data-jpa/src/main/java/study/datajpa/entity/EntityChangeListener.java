@@ -0,0 +1,35 @@
+package study.datajpa.entity;
+
+import study.datajpa.repository.support.EntityChangePublisher;
+import study.datajpa.repository.support.UsernameIdCache;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+// 엔티티 변경을 캐시 무효화 이벤트로 알린다
+// - 스프링 부트는 하이버네이트에 SpringBeanContainer를 등록하므로 엔티티 리스너도 스프링 빈을 주입받을 수 있다
+public class EntityChangeListener {
+
+    private final EntityChangePublisher entityChangePublisher;
+
+    public EntityChangeListener(EntityChangePublisher entityChangePublisher) {
+        this.entityChangePublisher = entityChangePublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void afterChange(Object entity) {
+        Object id = null;
+        if (entity instanceof Member) {
+            id = ((Member) entity).getId();
+        } else if (entity instanceof Team) {
+            id = ((Team) entity).getId();
+        }
+        entityChangePublisher.publish(entity.getClass(), id);
+        if (entity instanceof Member) {
+            entityChangePublisher.publish(UsernameIdCache.UsernameKey.class, ((Member) entity).getUsername()); // 바뀐 뒤의 username
+        }
+    }
+}
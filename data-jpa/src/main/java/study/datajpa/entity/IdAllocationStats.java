@@ -0,0 +1,70 @@
+package study.datajpa.entity;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 시퀀스 별 id 생성 수 / 실제 시퀀스 호출 수
+// - 생성기는 하이버네이트가 만들기 때문에 스프링 빈 대신 전역 레지스트리(Metrics.globalRegistry)에 등록한다
+// - datajpa.id.generated / datajpa.id.sequence.calls / datajpa.id.sequence.calls.saved (tag: sequence)
+public final class IdAllocationStats {
+
+    private static final Map<String, SequenceStats> STATS = new ConcurrentHashMap<>();
+
+    private IdAllocationStats() {
+    }
+
+    static void register(String sequenceName) {
+        STATS.computeIfAbsent(sequenceName, name -> {
+            SequenceStats stats = new SequenceStats();
+            FunctionCounter.builder("datajpa.id.generated", stats, SequenceStats::getGenerated)
+                    .tag("sequence", name)
+                    .register(Metrics.globalRegistry);
+            FunctionCounter.builder("datajpa.id.sequence.calls", stats, SequenceStats::getSequenceCalls)
+                    .tag("sequence", name)
+                    .register(Metrics.globalRegistry);
+            FunctionCounter.builder("datajpa.id.sequence.calls.saved", stats, SequenceStats::getSaved)
+                    .tag("sequence", name)
+                    .description("블록 할당으로 생략된 시퀀스 호출 수")
+                    .register(Metrics.globalRegistry);
+            return stats;
+        });
+    }
+
+    static void record(String sequenceName, long lastSourceValue) {
+        STATS.get(sequenceName).record(lastSourceValue);
+    }
+
+    public static SequenceStats get(String sequenceName) {
+        return STATS.get(sequenceName);
+    }
+
+    public static class SequenceStats {
+        private long generated;
+        private long sequenceCalls;
+        private long lastSourceValue = Long.MIN_VALUE;
+
+        // 옵티마이저가 마지막으로 받은 시퀀스 값이 바뀌었으면 그 사이에 시퀀스를 호출한 것이다
+        synchronized void record(long sourceValue) {
+            generated++;
+            if (sourceValue != lastSourceValue) {
+                sequenceCalls++;
+                lastSourceValue = sourceValue;
+            }
+        }
+
+        public synchronized long getGenerated() {
+            return generated;
+        }
+
+        public synchronized long getSequenceCalls() {
+            return sequenceCalls;
+        }
+
+        public synchronized long getSaved() {
+            return generated - sequenceCalls;
+        }
+    }
+}
@@ -38,5 +38,12 @@ public class Item implements Persistable<String> {
         return  createdDate == null;
     }
 
+    // JPA를 거치지 않고 INSERT 한 경우 (ItemRepository.upsertAll) INSERT 한 createdDate를 기록해서 새 엔티티로 보이지 않게 한다
+    public void markCreated(LocalDateTime createdDate){
+        if (this.createdDate == null) {
+            this.createdDate = createdDate;
+        }
+    }
+
 
 }
@@ -1,8 +1,14 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
 @Getter @Setter
@@ -10,8 +16,23 @@ import javax.persistence.*;
 @ToString(of = {"id", "username", "age"})
 @NamedQuery(name="Member.findByUsername", query="select m from Member m where m.username = :username")
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team"))
+@EntityListeners(EntityChangeListener.class)
+@DynamicUpdate // 변경된 컬럼만 UPDATE (컬럼 조합이 달라지면 JDBC 배치로 묶이지 않는다)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // Team.members 컬렉션 캐시가 id로 회원을 찾을 때 사용
+@Table(indexes = {
+        // 키셋 페이징은 정렬 키 + id 인덱스가 있어야 페이지 깊이와 관계없이 일정한 속도가 나온다
+        @Index(name = "idx_member_username_id", columnList = "username, member_id"),
+        @Index(name = "idx_member_age_username_id", columnList = "age, username, member_id")
+})
 public class Member extends  BaseEntity{
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @GenericGenerator(name = "member_seq_generator", strategy = "study.datajpa.entity.PooledSequenceGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "member_seq"),
+                    @Parameter(name = "increment_size", value = "50"), // 시퀀스 한 번에 50개의 id를 할당
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -21,6 +42,10 @@ public class Member extends  BaseEntity{
     @JoinColumn(name = "team_id")
     private Team team;
 
+    // 작업 큐(MemberWorkQueue)에서 이 회원을 가져간 워커와 시각. 처리가 끝나면 비운다
+    private String claimToken;
+    private LocalDateTime claimedAt;
+
     public Member(String username) {
         this.username = username;
     }
@@ -30,6 +55,11 @@ public class Member extends  BaseEntity{
         team.getMembers().add(this);
     }
 
+    public void releaseClaim() {
+        this.claimToken = null;
+        this.claimedAt = null;
+    }
+
     public Member(String username, int age, Team team) {
         this.username = username;
         this.age = age;
@@ -0,0 +1,43 @@
+package study.datajpa.entity;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+// 시퀀스를 한 번 호출할 때 increment_size 만큼의 id 블록을 가져와서 메모리에서 나눠주는 생성기 (pooled / pooled-lo)
+// - 블록 크기는 엔티티 매핑의 increment_size가 기본값이고,
+//   spring.jpa.properties.datajpa.id.increment_size.{시퀀스 이름} 으로 시퀀스 별로 바꿀 수 있다
+// - 생성한 id 수와 실제 시퀀스 호출 수를 IdAllocationStats에 기록한다
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String INCREMENT_SIZE_PREFIX = "datajpa.id.increment_size.";
+
+    private String sequenceName;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        sequenceName = params.getProperty(SEQUENCE_PARAM);
+        Object incrementSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSettings()
+                .get(INCREMENT_SIZE_PREFIX + sequenceName);
+        if (incrementSize != null) {
+            params.setProperty(INCREMENT_PARAM, incrementSize.toString());
+        }
+        super.configure(type, params, serviceRegistry);
+        IdAllocationStats.register(sequenceName);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        Serializable id = super.generate(session, object);
+        IdAllocationStats.record(sequenceName, getOptimizer().getLastSourceValue().makeValue().longValue());
+        return id;
+    }
+}
@@ -1,6 +1,14 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -10,13 +18,26 @@ import java.util.List;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@EntityListeners(EntityChangeListener.class) // 팀 이름은 회원 조회 캐시(MemberNearCache)의 teamName에도 들어있다
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 2차 캐시 : 거의 바뀌지 않는 팀은 DB를 거치지 않고 조회
+@DynamicUpdate // 변경된 컬럼만 UPDATE (컬럼 조합이 달라지면 JDBC 배치로 묶이지 않는다)
+@BatchSize(size = 100) // member.getTeam() 프록시들을 최대 100개씩 IN 쿼리로 초기화 (전역 default_batch_fetch_size 대신 팀 별로 지정)
 public class Team extends BaseEntity {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @GenericGenerator(name = "team_seq_generator", strategy = "study.datajpa.entity.PooledSequenceGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "team_seq"),
+                    @Parameter(name = "increment_size", value = "20"), // 시퀀스 한 번에 20개의 id를 할당
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
     @Column(name = "team_id")
     private Long id;
     private String name;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 컬렉션 캐시에는 회원 id만 저장된다
+    @Fetch(FetchMode.SUBSELECT) // 한 팀의 members를 초기화하면, 같은 쿼리로 조회한 모든 팀의 members를 서브쿼리 한 번으로 함께 초기화
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
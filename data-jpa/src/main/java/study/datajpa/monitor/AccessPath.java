@@ -0,0 +1,55 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 쿼리 하나가 테이블 하나를 어떤 조건으로 읽는지
+// - equality : =, in, is null (인덱스 앞쪽 컬럼 후보)
+// - range : >, <, between, like 'abc%' (equality 바로 뒤 한 개만 인덱스로 좁힐 수 있다)
+// - orderBy : 조건이 equality 뿐이면 인덱스 순서로 정렬을 생략할 수 있다
+// - nonSargable : like '%abc', <> 처럼 인덱스로 범위를 좁힐 수 없는 조건
+@Getter
+@ToString
+public class AccessPath {
+    private final String source;
+    private final String table;
+    private final List<String> equality = new ArrayList<>();
+    private final List<String> range = new ArrayList<>();
+    private final List<String> orderBy = new ArrayList<>();
+    private final List<String> nonSargable = new ArrayList<>();
+
+    public AccessPath(String source, String table) {
+        this.source = source;
+        this.table = table.toLowerCase();
+    }
+
+    void addEquality(String column) {
+        add(equality, column);
+    }
+
+    void addRange(String column) {
+        add(range, column);
+    }
+
+    void addOrderBy(String column) {
+        add(orderBy, column);
+    }
+
+    void addNonSargable(String column) {
+        add(nonSargable, column);
+    }
+
+    boolean hasPredicate() {
+        return !equality.isEmpty() || !range.isEmpty() || !nonSargable.isEmpty();
+    }
+
+    private void add(List<String> columns, String column) {
+        String name = column.toLowerCase();
+        if (!columns.contains(name)) {
+            columns.add(name);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// SQL 로그를 요청 스레드가 아닌 별도 스레드에서 쓴다
+// - 요청 스레드는 크기가 정해진 버퍼에 넣기만 하고 (offer), 버퍼가 가득 차면 기다리지 않고 버린다
+// - 버린 개수는 datajpa.sql.log.dropped 메트릭으로 확인
+@Slf4j
+@Component
+public class AsyncSqlLogger implements MeterBinder {
+
+    private final BlockingQueue<SqlLogEntry> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AsyncSqlLogger(@Value("${datajpa.sql.log.buffer-size:8192}") int bufferSize) {
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.writer = new Thread(this::drain, "sql-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void log(SqlLogEntry entry) {
+        if (!buffer.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        while (running || !buffer.isEmpty()) {
+            try {
+                SqlLogEntry entry = buffer.poll(1, TimeUnit.SECONDS);
+                if (entry != null) {
+                    write(entry);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(SqlLogEntry entry) {
+        if (entry.isSlow()) {
+            log.warn("slow sql {}ms [{}] {}", String.format("%.2f", entry.getElapsedMillis()), entry.getMethod(), entry.getSql());
+        } else {
+            log.info("sql {}ms [{}] {}", String.format("%.2f", entry.getElapsedMillis()), entry.getMethod(), entry.getSql());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("datajpa.sql.log.dropped", dropped, AtomicLong::get)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
@@ -0,0 +1,77 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// 커넥션을 얻은 시점부터 close(풀에 반납)까지의 시간을, 커넥션을 얻은 리포지토리 메서드 별로 기록
+// - datajpa.connection.usage{method} : hikaricp.connections.usage 를 리포지토리 메서드 별로 나눈 것
+// - 트랜잭션이 시작될 때 커넥션을 얻으므로, 리포지토리 밖의 서비스 트랜잭션은 method=none 으로 잡힌다
+public class ConnectionUsageDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ConnectionUsageDataSource(DataSource targetDataSource, ObjectProvider<MeterRegistry> meterRegistry) {
+        super(targetDataSource);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    private Connection track(Connection connection) {
+        String method = RepositoryMethodContext.current();
+        long start = System.nanoTime();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, invoked, args) -> {
+                    switch (invoked.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                    }
+                    if ("close".equals(invoked.getName()) && !connection.isClosed()) {
+                        record(method, System.nanoTime() - start);
+                    }
+                    if ("unwrap".equals(invoked.getName()) && ((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    try {
+                        return invoked.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private void record(String method, long nanos) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        Timer.builder("datajpa.connection.usage")
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,16 @@
+package study.datajpa.monitor;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateMonitorConfig {
+
+    // 하이버네이트가 만드는 대신 스프링 빈 인스턴스를 StatementInspector로 등록
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(QueryBudgetInspector queryBudgetInspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryBudgetInspector);
+    }
+}
@@ -0,0 +1,380 @@
+package study.datajpa.monitor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// 리포지토리 쿼리를 보고 필요한 인덱스를 제안 (datajpa.index-advisor.enabled=true 일 때 애플리케이션 시작 시)
+// - 대상 : 메서드 이름으로 만드는 쿼리(PartTree), @Query JPQL(countQuery 포함), 엔티티의 @NamedQuery,
+//          specification-classes 의 Specification 팩토리 메서드
+// - JPQL / Specification은 하이버네이트가 변환한 SQL을, 메서드 이름 쿼리는 프로퍼티 -> 컬럼 매핑을 분석한다
+// - 실제 DB의 인덱스(JDBC 메타데이터)와 비교해서 부족한 복합 인덱스는 DDL과 @Table(indexes) 형태로, 인덱스를 전혀 쓸 수 없는 쿼리는 full scan으로 로그에 남긴다
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.index-advisor.enabled", havingValue = "true")
+public class IndexAdvisor implements ApplicationRunner {
+
+    private final ApplicationContext applicationContext;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+    private final List<String> specificationClasses;
+
+    public IndexAdvisor(ApplicationContext applicationContext,
+                        EntityManagerFactory entityManagerFactory,
+                        DataSource dataSource,
+                        @Value("${datajpa.index-advisor.specification-classes:}") List<String> specificationClasses) {
+        this.applicationContext = applicationContext;
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.specificationClasses = specificationClasses;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        log.info("{}", analyze());
+    }
+
+    public IndexReport analyze() throws SQLException {
+        List<AccessPath> paths = new ArrayList<>();
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            Class<?> repositoryInterface = repositories.getRequiredRepositoryInformation(domainType).getRepositoryInterface();
+            for (Method method : repositoryInterface.getDeclaredMethods()) {
+                if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                String source = repositoryInterface.getSimpleName() + "." + method.getName();
+                Query query = method.getAnnotation(Query.class);
+                if (query == null) {
+                    paths.addAll(derivedQuery(sessionFactory, source, method, domainType));
+                } else if (StringUtils.hasText(query.value()) && !query.nativeQuery()) {
+                    paths.addAll(jpql(sessionFactory, source, query.value()));
+                    if (StringUtils.hasText(query.countQuery())) {
+                        paths.addAll(jpql(sessionFactory, source + " (count)", query.countQuery()));
+                    }
+                }
+                // @Query(name = ...) 는 아래 @NamedQuery 에서 분석
+            }
+        }
+
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            for (NamedQuery namedQuery : entity.getJavaType().getAnnotationsByType(NamedQuery.class)) {
+                paths.addAll(jpql(sessionFactory, "@NamedQuery " + namedQuery.name(), namedQuery.query()));
+            }
+        }
+
+        for (String className : specificationClasses) {
+            if (StringUtils.hasText(className)) {
+                paths.addAll(specifications(sessionFactory, className.trim()));
+            }
+        }
+
+        return evaluate(paths, existingIndexes(sessionFactory));
+    }
+
+    // findByUsernameAndAgeGreaterThan -> member (username = ?, age > ?)
+    private List<AccessPath> derivedQuery(SessionFactoryImplementor sessionFactory, String source, Method method, Class<?> domainType) {
+        PartTree tree;
+        try {
+            tree = new PartTree(method.getName(), domainType);
+        } catch (RuntimeException e) {
+            return Collections.emptyList(); // 커스텀 구현(MemberRepositoryCustom) 등 메서드 이름 쿼리가 아닌 메서드
+        }
+
+        AbstractEntityPersister persister = persister(sessionFactory, domainType);
+        AccessPath path = new AccessPath(source, persister.getTableName());
+        List<AccessPath> paths = new ArrayList<>();
+        paths.add(path);
+
+        for (Part part : tree.getParts()) {
+            PropertyPath property = part.getProperty();
+            AbstractEntityPersister owner = persister;
+            AccessPath target = path;
+            // member.team.name : member.team_id 로 조인해서 team.name 으로 찾는다
+            while (property.hasNext()) {
+                String association = owner.getPropertyColumnNames(property.getSegment())[0];
+                AccessPath join = new AccessPath(source + " (join)", owner.getTableName());
+                join.addEquality(association);
+                paths.add(join);
+
+                Type type = owner.getPropertyType(property.getSegment());
+                owner = (AbstractEntityPersister) sessionFactory.getMetamodel()
+                        .entityPersister(((org.hibernate.type.EntityType) type).getAssociatedEntityName(sessionFactory));
+                target = new AccessPath(source, owner.getTableName());
+                paths.add(target);
+                property = property.next();
+            }
+            for (String column : owner.getPropertyColumnNames(property.getSegment())) {
+                classify(target, column, part.getType());
+            }
+        }
+
+        for (Sort.Order order : tree.getSort()) {
+            if (!order.getProperty().contains(".")) {
+                for (String column : persister.getPropertyColumnNames(order.getProperty())) {
+                    path.addOrderBy(column);
+                }
+            }
+        }
+        // Pageable의 정렬은 호출할 때 정해지므로 알 수 없다
+        if (Arrays.asList(method.getParameterTypes()).contains(Pageable.class)) {
+            path.getOrderBy().clear();
+        }
+        return paths;
+    }
+
+    private void classify(AccessPath path, String column, Part.Type type) {
+        switch (type) {
+            case SIMPLE_PROPERTY:
+            case IN:
+            case IS_NULL:
+            case TRUE:
+            case FALSE:
+                path.addEquality(column);
+                break;
+            case GREATER_THAN:
+            case GREATER_THAN_EQUAL:
+            case LESS_THAN:
+            case LESS_THAN_EQUAL:
+            case BETWEEN:
+            case AFTER:
+            case BEFORE:
+            case STARTING_WITH:
+                path.addRange(column);
+                break;
+            default: // CONTAINING, ENDING_WITH, LIKE, NOT_*, NEGATING_SIMPLE_PROPERTY ...
+                path.addNonSargable(column);
+        }
+    }
+
+    private List<AccessPath> jpql(SessionFactoryImplementor sessionFactory, String source, String jpql) {
+        try {
+            HQLQueryPlan plan = sessionFactory.getQueryPlanCache().getHQLQueryPlan(jpql, false, Collections.emptyMap());
+            List<AccessPath> paths = new ArrayList<>();
+            for (String sql : plan.getSqlStrings()) {
+                paths.addAll(SqlAccessPathParser.parse(source, sql));
+            }
+            return paths;
+        } catch (RuntimeException e) {
+            log.debug("index advisor skipped {} : {}", source, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    // public static Specification<T> xxx(...) 를 임의의 값으로 호출하고, Criteria -> JPQL -> SQL 로 변환해서 분석
+    private List<AccessPath> specifications(SessionFactoryImplementor sessionFactory, String className) {
+        List<AccessPath> paths = new ArrayList<>();
+        Class<?> specificationClass = ClassUtils.resolveClassName(className, getClass().getClassLoader());
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            for (Method method : specificationClass.getMethods()) {
+                if (!Modifier.isStatic(method.getModifiers()) || !Specification.class.equals(method.getReturnType())) {
+                    continue;
+                }
+                Class<?> domainType = ResolvableType.forMethodReturnType(method).as(Specification.class).resolveGeneric(0);
+                Object[] args = sampleArguments(method);
+                if (domainType == null || args == null) {
+                    continue;
+                }
+                Specification<?> specification = (Specification<?>) method.invoke(null, args);
+                String jpql = render(em, domainType, specification);
+                paths.addAll(jpql(sessionFactory, specificationClass.getSimpleName() + "." + method.getName(), jpql));
+            }
+        } catch (ReflectiveOperationException e) {
+            log.warn("index advisor could not inspect {}", className, e);
+        } finally {
+            em.close();
+        }
+        return paths;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private String render(EntityManager em, Class<?> domainType, Specification specification) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery query = builder.createQuery(domainType);
+        Root root = query.from(domainType);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root);
+        return em.createQuery(query).unwrap(org.hibernate.query.Query.class).getQueryString();
+    }
+
+    // 값은 SQL 모양에 영향을 주지 않으므로 아무 값이나 넣는다. 만들 수 없는 타입이 있으면 건너뛴다
+    private Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(types[i]);
+            if (type == String.class) {
+                args[i] = "advisor";
+            } else if (type == Integer.class || type == Long.class) {
+                args[i] = type == Integer.class ? (Object) 0 : (Object) 0L;
+            } else if (type == Boolean.class) {
+                args[i] = Boolean.TRUE;
+            } else {
+                return null;
+            }
+        }
+        return args;
+    }
+
+    private IndexReport evaluate(List<AccessPath> paths, Map<String, List<List<String>>> indexes) {
+        IndexReport report = new IndexReport();
+        for (AccessPath path : paths) {
+            List<List<String>> tableIndexes = indexes.getOrDefault(path.getTable(), Collections.emptyList());
+
+            if (!path.hasPredicate()) {
+                if (path.getOrderBy().isEmpty() || !hasPrefix(tableIndexes, path.getOrderBy())) {
+                    report.getFullScans().add(path.getSource() + " : " + path.getTable() + " (조건 없음)");
+                }
+                continue;
+            }
+
+            List<String> wanted = new ArrayList<>(path.getEquality());
+            if (!path.getRange().isEmpty()) {
+                wanted.add(path.getRange().get(0));
+            } else {
+                for (String column : path.getOrderBy()) {
+                    if (!wanted.contains(column)) {
+                        wanted.add(column);
+                    }
+                }
+            }
+
+            boolean usable = tableIndexes.stream().anyMatch(index ->
+                    path.getEquality().contains(index.get(0)) || path.getRange().contains(index.get(0)));
+            if (!usable) {
+                report.getFullScans().add(path.getSource() + " : " + path.getTable() + " " + describe(path));
+            }
+            if (!wanted.isEmpty() && !covered(tableIndexes, path, wanted)) {
+                suggest(report, path, wanted);
+            }
+        }
+        return report;
+    }
+
+    // equality 컬럼들이 (순서와 관계없이) 인덱스 앞쪽을 차지하고, 그 뒤에 range(또는 정렬) 컬럼이 이어지는가
+    private boolean covered(List<List<String>> indexes, AccessPath path, List<String> wanted) {
+        int equalities = path.getEquality().size();
+        for (List<String> index : indexes) {
+            if (index.size() < wanted.size()) {
+                continue;
+            }
+            boolean match = index.subList(0, equalities).containsAll(path.getEquality())
+                    && index.subList(equalities, wanted.size()).equals(wanted.subList(equalities, wanted.size()));
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasPrefix(List<List<String>> indexes, List<String> columns) {
+        return indexes.stream().anyMatch(index -> index.size() >= columns.size() && index.subList(0, columns.size()).equals(columns));
+    }
+
+    private void suggest(IndexReport report, AccessPath path, List<String> columns) {
+        IndexSuggestion suggestion = new IndexSuggestion(path.getTable(), columns);
+        for (IndexSuggestion existing : report.getSuggestions()) {
+            if (existing.covers(suggestion)) {
+                existing.getSources().add(path.getSource());
+                return;
+            }
+        }
+        // 새 제안이 기존 제안을 대신할 수 있으면 합친다
+        for (IndexSuggestion existing : new ArrayList<>(report.getSuggestions())) {
+            if (suggestion.covers(existing)) {
+                suggestion.getSources().addAll(existing.getSources());
+                report.getSuggestions().remove(existing);
+            }
+        }
+        suggestion.getSources().add(path.getSource());
+        report.getSuggestions().add(suggestion);
+    }
+
+    private String describe(AccessPath path) {
+        List<String> conditions = new ArrayList<>(path.getEquality());
+        conditions.addAll(path.getRange());
+        if (!path.getNonSargable().isEmpty()) {
+            conditions.add("인덱스를 쓸 수 없는 조건 " + path.getNonSargable());
+        }
+        return conditions.toString();
+    }
+
+    // 테이블 -> 인덱스 컬럼 목록 (PK 포함, 소문자)
+    private Map<String, List<List<String>>> existingIndexes(SessionFactoryImplementor sessionFactory) throws SQLException {
+        Map<String, List<List<String>>> indexes = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                String table = persister(sessionFactory, entity.getJavaType()).getTableName().toLowerCase();
+                Map<String, TreeMap<Short, String>> columnsByIndex = new HashMap<>();
+                for (String name : new String[]{table, table.toUpperCase()}) {
+                    try (ResultSet rs = metaData.getIndexInfo(null, null, name, false, true)) {
+                        while (rs.next()) {
+                            if (rs.getString("COLUMN_NAME") == null) {
+                                continue;
+                            }
+                            columnsByIndex.computeIfAbsent(rs.getString("INDEX_NAME"), key -> new TreeMap<>())
+                                    .put(rs.getShort("ORDINAL_POSITION"), rs.getString("COLUMN_NAME").toLowerCase());
+                        }
+                    }
+                }
+                List<List<String>> tableIndexes = new ArrayList<>();
+                columnsByIndex.values().forEach(columns -> tableIndexes.add(new ArrayList<>(columns.values())));
+                indexes.put(table, tableIndexes);
+            }
+        }
+        return indexes;
+    }
+
+    private AbstractEntityPersister persister(SessionFactoryImplementor sessionFactory, Class<?> entityType) {
+        return (AbstractEntityPersister) sessionFactory.getMetamodel().entityPersister(entityType);
+    }
+}
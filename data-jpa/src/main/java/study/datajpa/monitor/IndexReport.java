@@ -0,0 +1,28 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+public class IndexReport {
+    private final List<IndexSuggestion> suggestions = new ArrayList<>();
+    private final List<String> fullScans = new ArrayList<>(); // "소스 : 이유"
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("index advisor : ")
+                .append(suggestions.size()).append(" suggestion(s), ")
+                .append(fullScans.size()).append(" full scan(s)");
+        for (IndexSuggestion suggestion : suggestions) {
+            report.append("\n  ").append(suggestion.getDdl())
+                    .append("\n      ").append(suggestion.getAnnotation())
+                    .append("\n      <- ").append(String.join(", ", suggestion.getSources()));
+        }
+        for (String fullScan : fullScans) {
+            report.append("\n  [full scan] ").append(fullScan);
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// 추가를 제안하는 인덱스 하나와, 그 인덱스가 필요한 쿼리들
+@Getter
+@ToString
+public class IndexSuggestion {
+    private final String table;
+    private final List<String> columns;
+    private final Set<String> sources = new LinkedHashSet<>();
+
+    public IndexSuggestion(String table, List<String> columns) {
+        this.table = table;
+        this.columns = new ArrayList<>(columns);
+    }
+
+    public String getName() {
+        return "idx_" + table + "_" + String.join("_", columns);
+    }
+
+    public String getDdl() {
+        return "create index " + getName() + " on " + table + " (" + String.join(", ", columns) + ");";
+    }
+
+    public String getAnnotation() {
+        return "@Index(name = \"" + getName() + "\", columnList = \"" + String.join(", ", columns) + "\")";
+    }
+
+    // (a, b, c) 인덱스는 (a, b) 인덱스가 할 일을 대신할 수 있다
+    boolean covers(IndexSuggestion other) {
+        return table.equals(other.table)
+                && columns.size() >= other.columns.size()
+                && columns.subList(0, other.columns.size()).equals(other.columns);
+    }
+}
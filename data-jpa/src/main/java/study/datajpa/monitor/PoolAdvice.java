@@ -0,0 +1,27 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class PoolAdvice {
+    private final int currentMaximumPoolSize;
+    private final int recommendedMaximumPoolSize;
+    private final double averageConcurrency; // 리틀의 법칙으로 구한 평균 동시 사용 커넥션 수
+    private final double peakConcurrency;    // 샘플 구간 별 최댓값
+    private final int peakActive;
+    private final int peakPending;           // 커넥션을 기다린 스레드 수 최댓값. 0보다 크면 풀이 부족했던 구간이 있다
+    private final int samples;
+
+    public PoolAdvice(int currentMaximumPoolSize, int recommendedMaximumPoolSize, double averageConcurrency,
+                      double peakConcurrency, int peakActive, int peakPending, int samples) {
+        this.currentMaximumPoolSize = currentMaximumPoolSize;
+        this.recommendedMaximumPoolSize = recommendedMaximumPoolSize;
+        this.averageConcurrency = averageConcurrency;
+        this.peakConcurrency = peakConcurrency;
+        this.peakActive = peakActive;
+        this.peakPending = peakPending;
+        this.samples = samples;
+    }
+}
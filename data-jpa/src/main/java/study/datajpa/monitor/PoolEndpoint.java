@@ -0,0 +1,73 @@
+package study.datajpa.monitor;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// GET /actuator/pool : 풀 별 커넥션 상태, 획득 대기 / 점유 시간, (켜져 있으면) 풀 크기 추천
+// - 시계열과 히스토그램은 /actuator/metrics/hikaricp.connections.acquire, hikaricp.connections.usage, datajpa.connection.usage
+@Component
+@Endpoint(id = "pool")
+public class PoolEndpoint {
+
+    private final PoolRegistry poolRegistry;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<PoolSizingAdvisor> advisor;
+
+    public PoolEndpoint(PoolRegistry poolRegistry, MeterRegistry meterRegistry, ObjectProvider<PoolSizingAdvisor> advisor) {
+        this.poolRegistry = poolRegistry;
+        this.meterRegistry = meterRegistry;
+        this.advisor = advisor;
+    }
+
+    @ReadOperation
+    public Map<String, Object> pools() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        poolRegistry.pools().forEach((name, pool) -> result.put(name, describe(name, pool)));
+        return result;
+    }
+
+    private Map<String, Object> describe(String name, HikariDataSource pool) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maximumPoolSize", pool.getMaximumPoolSize());
+        stats.put("minimumIdle", pool.getMinimumIdle());
+        stats.put("connectionTimeoutMs", pool.getConnectionTimeout());
+
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean != null) {
+            stats.put("active", mxBean.getActiveConnections());
+            stats.put("idle", mxBean.getIdleConnections());
+            stats.put("total", mxBean.getTotalConnections());
+            stats.put("pending", mxBean.getThreadsAwaitingConnection());
+        }
+        stats.put("acquire", timer("hikaricp.connections.acquire", name));
+        stats.put("usage", timer("hikaricp.connections.usage", name));
+
+        PoolSizingAdvisor sizingAdvisor = advisor.getIfAvailable();
+        if (sizingAdvisor != null) {
+            stats.put("advice", sizingAdvisor.advise(name, pool.getMaximumPoolSize()));
+        }
+        return stats;
+    }
+
+    private Map<String, Object> timer(String meterName, String poolName) {
+        Timer timer = meterRegistry.find(meterName).tag("pool", poolName).timer();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (timer == null) {
+            return stats;
+        }
+        stats.put("count", timer.count());
+        stats.put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+        stats.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+}
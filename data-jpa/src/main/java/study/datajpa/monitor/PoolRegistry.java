@@ -0,0 +1,34 @@
+package study.datajpa.monitor;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 애플리케이션의 Hikari 풀 목록 (풀 이름 -> 풀)
+// - dataSource 빈은 datasource-proxy, 레플리카 라우팅 등으로 감싸져 있을 수 있으므로 풀 빈들을 직접 찾는다
+@Component
+public class PoolRegistry {
+
+    private final ObjectProvider<DataSource> dataSources;
+
+    public PoolRegistry(ObjectProvider<DataSource> dataSources) {
+        this.dataSources = dataSources;
+    }
+
+    public Map<String, HikariDataSource> pools() {
+        Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+        dataSources.orderedStream().forEach(dataSource -> {
+            HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+            if (hikari != null) {
+                pools.putIfAbsent(hikari.getPoolName(), hikari);
+            }
+        });
+        return pools;
+    }
+}
@@ -0,0 +1,144 @@
+package study.datajpa.monitor;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 커넥션 풀 크기 추천 (datajpa.pool.advisor.enabled=true 일 때만)
+// - sample-interval-ms 마다 풀 상태를 기록하고, 최근 window-size 개의 샘플로 필요한 커넥션 수를 구한다
+// - 리틀의 법칙 : 동시에 필요한 커넥션 수 = 초당 커넥션 사용 횟수 x 평균 점유 시간 = 구간 동안의 점유 시간 합 / 구간 길이
+// - 순간적인 몰림은 평균에 묻히므로 active + pending(대기 중인 스레드)의 최댓값도 함께 본다
+// - 추천값 = max(리틀의 법칙 최댓값, active + pending 최댓값) x headroom (올림)
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.pool.advisor.enabled", havingValue = "true")
+public class PoolSizingAdvisor {
+
+    private final PoolRegistry poolRegistry;
+    private final MeterRegistry meterRegistry;
+    private final long intervalMillis;
+    private final int windowSize;
+    private final double headroom;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pool-sizing-advisor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PoolSizingAdvisor(PoolRegistry poolRegistry,
+                             MeterRegistry meterRegistry,
+                             @Value("${datajpa.pool.advisor.sample-interval-ms:1000}") long intervalMillis,
+                             @Value("${datajpa.pool.advisor.window-size:300}") int windowSize,
+                             @Value("${datajpa.pool.advisor.headroom:1.2}") double headroom) {
+        this.poolRegistry = poolRegistry;
+        this.meterRegistry = meterRegistry;
+        this.intervalMillis = intervalMillis;
+        this.windowSize = windowSize;
+        this.headroom = headroom;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    void sample() {
+        try {
+            poolRegistry.pools().forEach((name, pool) -> {
+                HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+                if (mxBean == null) {
+                    return; // 아직 풀이 시작되지 않았다
+                }
+                Timer usage = meterRegistry.find("hikaricp.connections.usage").tag("pool", name).timer();
+                double usageMillis = usage == null ? 0 : usage.totalTime(TimeUnit.MILLISECONDS);
+                windows.computeIfAbsent(name, key -> new Window())
+                        .add(System.nanoTime(), usageMillis, mxBean.getActiveConnections(), mxBean.getThreadsAwaitingConnection(), windowSize);
+            });
+        } catch (RuntimeException e) {
+            log.warn("pool sampling failed", e);
+        }
+    }
+
+    public PoolAdvice advise(String poolName, int currentMaximumPoolSize) {
+        Window window = windows.get(poolName);
+        if (window == null) {
+            return null;
+        }
+        synchronized (window) {
+            double littleMax = 0;
+            double littleSum = 0;
+            int intervals = 0;
+            int peakActive = 0;
+            int peakPending = 0;
+            int peakDemand = 0;
+            Sample previous = null;
+            for (Sample sample : window.samples) {
+                peakActive = Math.max(peakActive, sample.active);
+                peakPending = Math.max(peakPending, sample.pending);
+                peakDemand = Math.max(peakDemand, sample.active + sample.pending);
+                if (previous != null) {
+                    double elapsedMillis = (sample.nanos - previous.nanos) / 1_000_000.0;
+                    double busy = elapsedMillis <= 0 ? 0 : (sample.usageMillis - previous.usageMillis) / elapsedMillis;
+                    littleMax = Math.max(littleMax, busy);
+                    littleSum += busy;
+                    intervals++;
+                }
+                previous = sample;
+            }
+            int recommended = recommend(littleMax, peakDemand, headroom);
+            return new PoolAdvice(currentMaximumPoolSize, recommended,
+                    intervals == 0 ? 0 : littleSum / intervals, littleMax, peakActive, peakPending, window.samples.size());
+        }
+    }
+
+    static int recommend(double concurrency, int peakDemand, double headroom) {
+        double needed = Math.max(concurrency, peakDemand);
+        return Math.max(1, (int) Math.ceil(needed * headroom));
+    }
+
+    private static class Window {
+        private final Deque<Sample> samples = new ArrayDeque<>();
+
+        synchronized void add(long nanos, double usageMillis, int active, int pending, int windowSize) {
+            samples.addLast(new Sample(nanos, usageMillis, active, pending));
+            while (samples.size() > windowSize) {
+                samples.removeFirst();
+            }
+        }
+    }
+
+    private static class Sample {
+        private final long nanos;
+        private final double usageMillis; // 누적 커넥션 점유 시간
+        private final int active;
+        private final int pending;
+
+        Sample(long nanos, double usageMillis, int active, int pending) {
+            this.nanos = nanos;
+            this.usageMillis = usageMillis;
+            this.active = active;
+            this.pending = pending;
+        }
+    }
+}
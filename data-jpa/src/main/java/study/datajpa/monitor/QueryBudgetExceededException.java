@@ -0,0 +1,8 @@
+package study.datajpa.monitor;
+
+// datajpa.query-budget.fail = true 일 때 SQL 실행 예산을 넘거나 N+1이 의심되면 발생
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,117 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// N+1 탐지기
+// - 하이버네이트가 SQL을 실행하기 직전에 호출하는 StatementInspector로 HTTP 요청(또는 트랜잭션) 별 SQL 수를 센다
+// - PreparedStatement SQL은 파라미터가 ? 로 되어 있으므로, 같은 SELECT가 반복되면 파라미터만 다른 N+1로 본다
+// - 예산(max-statements)을 넘거나 N+1이 의심되면 로그를 남기고, fail = true 면 예외를 던진다
+// - SELECT만 센다. INSERT/UPDATE/DELETE 는 JDBC 배치 / 벌크 청크 수만큼 실행되는 것이 정상이므로 (saveAllBatched, ChunkedUpdateExecutor) 예산에 넣지 않는다
+// - 메트릭 : datajpa.query.statements{scope} (스코프 당 SQL 수), datajpa.query.violations{type}
+@Slf4j
+@Component
+public class QueryBudgetInspector implements StatementInspector {
+
+    private final ThreadLocal<QueryScope> current = new ThreadLocal<>();
+    private final ObjectProvider<MeterRegistry> meterRegistry; // 하이버네이트 초기화 시점에는 레지스트리가 없을 수 있어서 지연 조회
+    private final int maxStatements;
+    private final int repeatThreshold;
+    private final boolean fail;
+
+    public QueryBudgetInspector(ObjectProvider<MeterRegistry> meterRegistry,
+                                @Value("${datajpa.query-budget.max-statements:50}") int maxStatements,
+                                @Value("${datajpa.query-budget.repeat-threshold:10}") int repeatThreshold,
+                                @Value("${datajpa.query-budget.fail:false}") boolean fail) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.repeatThreshold = repeatThreshold;
+        this.fail = fail;
+    }
+
+    // 이미 열린 스코프가 있으면 null (바깥 스코프에 합산)
+    public QueryScope open(String name) {
+        if (current.get() != null) {
+            return null;
+        }
+        QueryScope scope = new QueryScope(name);
+        current.set(scope);
+        return scope;
+    }
+
+    public void close(QueryScope scope) {
+        if (scope == null) {
+            return;
+        }
+        current.remove();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            DistributionSummary.builder("datajpa.query.statements")
+                    .tag("scope", scope.getName().startsWith("tx:") ? "transaction" : "request")
+                    .register(registry)
+                    .record(scope.getTotal());
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (!isSelect(sql)) {
+            return sql;
+        }
+        QueryScope scope = current.get();
+        if (scope == null) {
+            scope = openTransactionScope();
+        }
+        if (scope == null) {
+            return sql;
+        }
+
+        int repeated = scope.record(sql);
+        if (repeated == repeatThreshold) {
+            violation("nplusone", "N+1 의심 [" + scope.getName() + "] 같은 SQL이 " + repeated + "번 실행되었습니다. sql = " + sql);
+        }
+        if (scope.exceeds(maxStatements)) {
+            violation("budget", "SQL 실행 예산 초과 [" + scope.getName() + "] " + scope.getTotal() + " > " + maxStatements);
+        }
+        return sql;
+    }
+
+    // HTTP 요청 밖(배치, 테스트 등)에서는 트랜잭션 단위로 센다
+    private QueryScope openTransactionScope() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        QueryScope scope = open("tx:" + name);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                close(scope);
+            }
+        });
+        return scope;
+    }
+
+    private boolean isSelect(String sql) {
+        String trimmed = sql.trim();
+        return trimmed.regionMatches(true, 0, "select", 0, 6) || trimmed.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    private void violation(String type, String message) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.counter("datajpa.query.violations", "type", type).increment();
+        }
+        if (fail) {
+            throw new QueryBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+}
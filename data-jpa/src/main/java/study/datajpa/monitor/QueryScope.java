@@ -0,0 +1,34 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// HTTP 요청 또는 트랜잭션 하나 동안 실행된 SQL 집계
+@Getter
+public class QueryScope {
+    private final String name;
+    private final Map<String, Integer> counts = new HashMap<>();
+    private int total;
+    private boolean budgetExceeded;
+
+    public QueryScope(String name) {
+        this.name = name;
+    }
+
+    // 같은 SQL(파라미터만 다른)이 실행된 횟수를 반환
+    int record(String sql) {
+        total++;
+        return counts.merge(sql, 1, Integer::sum);
+    }
+
+    // 예산 초과는 스코프 당 한 번만 알린다
+    boolean exceeds(int maxStatements) {
+        if (!budgetExceeded && total > maxStatements) {
+            budgetExceeded = true;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,48 @@
+package study.datajpa.monitor;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 스프링 데이터 JPA 리포지토리와 @Repository 클래스(MemberJpaRepository 등)의 메서드 실행 구간을 RepositoryMethodContext에 기록
+@Aspect
+@Component
+public class RepositoryMethodAspect {
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))" +
+            " || @within(org.springframework.stereotype.Repository)")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = repositoryName(joinPoint) + "." + joinPoint.getSignature().getName();
+        if (!RepositoryMethodContext.enter(method)) {
+            return joinPoint.proceed();
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RepositoryMethodContext.exit();
+        }
+    }
+
+    // save(), findAll() 처럼 스프링 데이터 인터페이스에 선언된 메서드는 실제 리포지토리 인터페이스 이름을 찾는다
+    private String repositoryName(ProceedingJoinPoint joinPoint) {
+        Class<?> declaringType = joinPoint.getSignature().getDeclaringType();
+        if (!declaringType.getName().startsWith("org.springframework.")) {
+            return declaringType.getSimpleName();
+        }
+        return repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(), proxyType -> {
+            for (Class<?> type : proxyType.getInterfaces()) {
+                if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework.")) {
+                    return type.getSimpleName();
+                }
+            }
+            return declaringType.getSimpleName();
+        });
+    }
+}
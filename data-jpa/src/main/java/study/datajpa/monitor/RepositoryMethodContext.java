@@ -0,0 +1,29 @@
+package study.datajpa.monitor;
+
+// 현재 스레드에서 실행 중인 (가장 바깥) 리포지토리 메서드 이름. 예) MemberRepository.findByUsername
+// - RepositoryMethodAspect가 채우고, SQL 메트릭이 태그로 사용한다
+public final class RepositoryMethodContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RepositoryMethodContext() {
+    }
+
+    public static String current() {
+        String method = CURRENT.get();
+        return method == null ? "none" : method;
+    }
+
+    // 이미 바깥 리포지토리 메서드 안이면 false (바깥 이름을 유지)
+    static boolean enter(String method) {
+        if (CURRENT.get() != null) {
+            return false;
+        }
+        CURRENT.set(method);
+        return true;
+    }
+
+    static void exit() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,142 @@
+package study.datajpa.monitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 하이버네이트가 만든 SQL에서 테이블 별 AccessPath를 뽑는다
+// - from / join 의 "테이블 별칭"과 where / on / order by 의 "별칭.컬럼 연산자"만 보는 단순한 분석이다
+// - join 조건은 조인 대상 테이블을 찾아 들어가는 별도의 AccessPath로 만든다
+// - or 조건도 and 처럼 한 AccessPath에 모은다 (or 양쪽이 각각 인덱스를 타야 하는 경우는 따로 판단해야 한다)
+final class SqlAccessPathParser {
+
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|join|update)\\s+(\\w+)(?:\\s+(?!where\\b|set\\b|on\\b|left\\b|inner\\b|cross\\b|order\\b)(\\w+))?");
+    private static final Pattern PREDICATE = Pattern.compile(
+            "(?:(\\w+)\\.)?(\\w+)\\s*(=|<>|!=|>=|<=|>|<|\\bnot\\s+in\\b|\\bin\\b|\\bnot\\s+like\\b|\\blike\\b|\\bbetween\\b|\\bis\\s+null\\b|\\bis\\s+not\\s+null\\b)\\s*(\\(?\\s*'?[%\\w.?]*)?");
+    private static final Pattern ORDER_COLUMN = Pattern.compile("(?:(\\w+)\\.)?(\\w+)(?:\\s+(?:asc|desc))?");
+    private static final Pattern JOIN_ON = Pattern.compile(" on (.+?)(?= left | inner | right | cross | join |$)");
+    private static final Pattern COLUMN_REFERENCE = Pattern.compile("\\(?\\s*\\w+\\.\\w+");
+
+    private SqlAccessPathParser() {
+    }
+
+    static List<AccessPath> parse(String source, String sql) {
+        String lower = sql.toLowerCase().replaceAll("\\s+", " ");
+
+        Map<String, String> tables = new HashMap<>(); // 별칭 -> 테이블
+        String firstTable = null;
+        Matcher table = TABLE.matcher(lower);
+        while (table.find()) {
+            String name = table.group(1);
+            if (firstTable == null) {
+                firstTable = name;
+            }
+            tables.put(table.group(2) == null ? name : table.group(2), name);
+        }
+        if (firstTable == null) {
+            return new ArrayList<>();
+        }
+
+        Map<String, AccessPath> paths = new LinkedHashMap<>();
+        paths.put(firstTable, new AccessPath(source, firstTable));
+        List<AccessPath> joins = new ArrayList<>();
+
+        int where = lower.indexOf(" where ");
+        if (where >= 0) {
+            Matcher predicate = PREDICATE.matcher(cut(lower.substring(where + " where ".length())));
+            while (predicate.find()) {
+                String tableName = predicate.group(1) == null ? firstTable : tables.get(predicate.group(1));
+                if (tableName == null || isColumnReference(predicate.group(4))) {
+                    continue;
+                }
+                AccessPath path = paths.computeIfAbsent(tableName, name -> new AccessPath(source, name));
+                String operator = predicate.group(3).replaceAll("\\s+", " ");
+                String operand = predicate.group(4) == null ? "" : predicate.group(4).trim();
+                classify(path, predicate.group(2), operator, operand);
+            }
+        }
+
+        // join ... on a.team_id=b.team_id : 조인으로 찾아 들어가는 쪽 컬럼에 인덱스가 있어야 한다. 양쪽을 각각 따로 본다
+        Matcher on = JOIN_ON.matcher(where >= 0 ? lower.substring(0, where) : lower);
+        while (on.find()) {
+            Matcher predicate = PREDICATE.matcher(on.group(1));
+            while (predicate.find()) {
+                if (!"=".equals(predicate.group(3)) || !isColumnReference(predicate.group(4))) {
+                    continue;
+                }
+                String[] other = predicate.group(4).replace("(", "").trim().split("\\.");
+                addJoin(joins, source, tables.get(predicate.group(1)), predicate.group(2));
+                addJoin(joins, source, tables.get(other[0]), other[1]);
+            }
+        }
+
+        int orderBy = lower.lastIndexOf(" order by ");
+        if (orderBy >= 0) {
+            for (String item : lower.substring(orderBy + " order by ".length()).split(",")) {
+                Matcher column = ORDER_COLUMN.matcher(item.trim());
+                if (column.lookingAt()) {
+                    String tableName = column.group(1) == null ? firstTable : tables.get(column.group(1));
+                    if (tableName != null && paths.containsKey(tableName)) {
+                        paths.get(tableName).addOrderBy(column.group(2));
+                    }
+                }
+            }
+        }
+        List<AccessPath> result = new ArrayList<>(paths.values());
+        result.addAll(joins);
+        return result;
+    }
+
+    private static boolean isColumnReference(String operand) {
+        return operand != null && COLUMN_REFERENCE.matcher(operand.trim()).matches();
+    }
+
+    private static void addJoin(List<AccessPath> joins, String source, String table, String column) {
+        if (table != null) {
+            AccessPath join = new AccessPath(source + " (join)", table);
+            join.addEquality(column);
+            joins.add(join);
+        }
+    }
+
+    private static void classify(AccessPath path, String column, String operator, String operand) {
+        switch (operator) {
+            case "=":
+            case "in":
+            case "is null":
+                path.addEquality(column);
+                break;
+            case ">":
+            case ">=":
+            case "<":
+            case "<=":
+            case "between":
+                path.addRange(column);
+                break;
+            case "like":
+                // 'abc%' 처럼 앞부분이 고정이면 범위 검색, 바인딩 파라미터(?)나 '%abc'는 인덱스로 좁힐 수 없다고 본다
+                if (operand.startsWith("'") && !operand.startsWith("'%")) {
+                    path.addRange(column);
+                } else {
+                    path.addNonSargable(column);
+                }
+                break;
+            default:
+                path.addNonSargable(column);
+        }
+    }
+
+    private static String cut(String where) {
+        for (String end : new String[]{" order by ", " group by ", " for update", " limit ", " offset ", " fetch "}) {
+            int index = where.indexOf(end);
+            if (index >= 0) {
+                where = where.substring(0, index);
+            }
+        }
+        return where;
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// JPA / JdbcTemplate이 사용하는 dataSource 빈을 datasource-proxy로 감싸서 SqlStatementListener를 연결
+// - 안쪽은 ConnectionUsageDataSource로 감싸서 리포지토리 메서드 별 커넥션 점유 시간도 기록한다
+// - 레플리카 분리(ReplicationDataSourceConfig)를 켜도 가장 바깥의 dataSource만 감싸므로 SQL 한 번에 한 번만 기록된다
+@Configuration
+@ConditionalOnProperty(name = "datajpa.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfig {
+
+    // BeanPostProcessor는 다른 빈보다 먼저 만들어지므로 static + 리스너는 지연 조회
+    @Bean
+    public static BeanPostProcessor sqlInstrumentationPostProcessor(ObjectProvider<SqlStatementListener> listener,
+                                                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(new ConnectionUsageDataSource((DataSource) bean, meterRegistry))
+                        .name(beanName)
+                        .listener(listener.getObject())
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+
+@Getter
+public class SqlLogEntry {
+    private final String sql;    // 바인딩 파라미터는 남기지 않는다 (? 그대로)
+    private final String method; // 리포지토리 메서드
+    private final double elapsedMillis;
+    private final boolean slow;
+
+    public SqlLogEntry(String sql, String method, double elapsedMillis, boolean slow) {
+        this.sql = sql;
+        this.method = method;
+        this.elapsedMillis = elapsedMillis;
+        this.slow = slow;
+    }
+}
@@ -0,0 +1,34 @@
+package study.datajpa.monitor;
+
+import java.util.regex.Pattern;
+
+// 메트릭 태그로 쓸 수 있도록 SQL을 정규화
+// - 문자열 / 숫자 리터럴은 ?, in (?, ?, ...) 은 in (?) 으로 바꿔서 값이나 개수만 다른 SQL을 하나로 묶는다
+// - 줄바꿈(format_sql)과 공백을 하나로 합치고, 너무 긴 SQL은 자른다
+public final class SqlNormalizer {
+
+    private static final int MAX_LENGTH = 300;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlNormalizer() {
+    }
+
+    public static String normalize(String sql) {
+        String normalized = WHITESPACE.matcher(sql).replaceAll(" ").trim();
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?)");
+        normalized = normalized.toLowerCase();
+        return normalized.length() > MAX_LENGTH ? normalized.substring(0, MAX_LENGTH) : normalized;
+    }
+
+    // select / insert / update / delete / merge ...
+    public static String statementType(String normalizedSql) {
+        int end = normalizedSql.indexOf(' ');
+        return end < 0 ? normalizedSql : normalizedSql.substring(0, end);
+    }
+}
@@ -0,0 +1,99 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// JDBC 실행마다 호출되는 datasource-proxy 리스너 (p6spy 대체)
+// - 메트릭 : datajpa.sql{sql, method, type} 지연 시간 히스토그램. sql은 정규화된 SQL, method는 리포지토리 메서드
+// - 로그 : slow-threshold-ms 이상 걸린 SQL은 전부, 나머지는 sample-rate 비율만 AsyncSqlLogger로 넘긴다
+@Component
+public class SqlStatementListener implements QueryExecutionListener {
+
+    private static final String OTHER = "other";
+
+    private final ThreadLocal<Long> startNanos = new ThreadLocal<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ObjectProvider<MeterRegistry> meterRegistry; // 데이터소스보다 늦게 만들어지므로 지연 조회
+    private final AsyncSqlLogger sqlLogger;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxTimers;
+
+    public SqlStatementListener(ObjectProvider<MeterRegistry> meterRegistry,
+                                AsyncSqlLogger sqlLogger,
+                                @Value("${datajpa.sql.log.sample-rate:0.01}") double sampleRate,
+                                @Value("${datajpa.sql.log.slow-threshold-ms:100}") long slowThresholdMillis,
+                                @Value("${datajpa.sql.max-timers:1000}") int maxTimers) {
+        this.meterRegistry = meterRegistry;
+        this.sqlLogger = sqlLogger;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.maxTimers = maxTimers;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        startNanos.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = startNanos.get();
+        startNanos.remove();
+        if (start == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        String method = RepositoryMethodContext.current();
+        // 배치 실행은 같은 SQL이 여러 번 들어오므로 첫 번째 SQL 기준으로 한 번만 기록
+        String rawSql = queryInfoList.get(0).getQuery();
+        String sql = SqlNormalizer.normalize(rawSql);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            timer(registry, sql, method).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+
+        boolean slow = elapsed >= slowThresholdNanos;
+        if (slow || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            sqlLogger.log(new SqlLogEntry(rawSql, method, elapsed / 1_000_000.0, slow));
+        }
+    }
+
+    // 태그 조합이 무한히 늘어나지 않도록 max-timers를 넘으면 sql 태그는 other로 모은다
+    private Timer timer(MeterRegistry registry, String sql, String method) {
+        String key = method + '\n' + sql;
+        Timer timer = timers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        if (timers.size() >= maxTimers) {
+            return timers.computeIfAbsent(method + '\n' + OTHER, k -> register(registry, OTHER, method));
+        }
+        return timers.computeIfAbsent(key, k -> register(registry, sql, method));
+    }
+
+    private Timer register(MeterRegistry registry, String sql, String method) {
+        return Timer.builder("datajpa.sql")
+                .tag("sql", sql)
+                .tag("method", method)
+                .tag("type", OTHER.equals(sql) ? OTHER : SqlNormalizer.statementType(sql))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+}
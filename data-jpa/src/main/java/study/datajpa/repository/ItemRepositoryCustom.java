@@ -0,0 +1,14 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Item;
+
+import java.util.Collection;
+
+public interface ItemRepositoryCustom {
+
+    // id가 이미 있으면 그대로 두고, 없으면 createdDate를 채워서 INSERT 한다
+    // - save()처럼 merge 전에 SELECT를 하지 않고, chunk 마다 하나의 배치 MERGE 문으로 처리한다
+    // - 반환값은 실제로 INSERT 된 row 수 (이미 있던 id는 세지 않는다)
+    // - INSERT 된 Item에는 createdDate를 채운다. 이미 있던 id의 Item은 그대로(isNew() == true) 이므로 save() 하지 말고 다시 조회해서 사용한다
+    int upsertAll(Collection<Item> items);
+}
@@ -0,0 +1,71 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Item;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    // H2의 MERGE INTO ... KEY(id) 는 기존 row의 created_date까지 덮어쓰기 때문에 MERGE ... USING 형태를 사용한다
+    private static final String UPSERT_SQL =
+            "merge into item t" +
+            " using (select cast(? as varchar(255)) as id) s on (t.id = s.id)" +
+            " when not matched then insert (id, created_date) values (s.id, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager em;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int chunkSize;
+
+    @Override
+    @Transactional
+    public int upsertAll(Collection<Item> items) {
+        em.flush(); // 같은 트랜잭션에서 JPA로 저장한 Item이 먼저 반영되어야 한다
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Item> chunk = new ArrayList<>(chunkSize);
+        int count = 0;
+        for (Item item : items) {
+            chunk.add(item);
+            if (chunk.size() == chunkSize) {
+                count += upsert(chunk, now);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            count += upsert(chunk, now);
+        }
+        return count;
+    }
+
+    private int upsert(List<Item> chunk, Timestamp createdDate) {
+        int[][] results = jdbcTemplate.batchUpdate(UPSERT_SQL, chunk, chunk.size(), (ps, item) -> {
+            ps.setString(1, item.getId());
+            ps.setTimestamp(2, createdDate);
+        });
+        LocalDateTime inserted = createdDate.toLocalDateTime();
+        int affected = 0;
+        int index = 0; // results는 batchSize(= chunk.size()) 단위로 나뉘어 있으므로 순서대로 chunk와 대응된다
+        for (int[] batch : results) {
+            for (int rows : batch) {
+                Item item = chunk.get(index++);
+                if (rows > 0) { // Statement.SUCCESS_NO_INFO(-2) 는 드라이버가 개수를 알려주지 않은 경우
+                    affected += rows;
+                    item.markCreated(inserted); // 이후 save()가 persist(INSERT) 대신 merge 하도록
+                }
+            }
+        }
+        return affected;
+    }
+}
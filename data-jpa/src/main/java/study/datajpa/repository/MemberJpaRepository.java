@@ -1,7 +1,11 @@
 package study.datajpa.repository;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.EntityChangePublisher;
+import study.datajpa.repository.support.TotalCountStrategy;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -14,6 +18,12 @@ public class MemberJpaRepository {
     @PersistenceContext
     private EntityManager em;
 
+    @Autowired
+    private TotalCountStrategy totalCountStrategy;
+
+    @Autowired
+    private EntityChangePublisher entityChangePublisher;
+
     public Member save(Member member) {
         em.persist(member);
         return member;
@@ -60,12 +70,38 @@ public class MemberJpaRepository {
                 .getResultList();
     }
 
+    // 키셋(seek) 페이징
+    // - offset 방식은 건너뛸 row를 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려진다
+    // - 마지막으로 본 (username, id) 다음부터 인덱스를 타고 바로 읽으므로 페이지 깊이와 관계없이 속도가 일정하다
+    // - JPQL은 (m.username, m.id) < (?, ?) 같은 row value 비교를 지원하지 않아서 풀어서 작성한다
+    public List<Member> findByPageAfter(int age, MemberCursor after, int limit) {
+        if (after == null) {
+            return em.createQuery("select m from Member m where m.age = :age order by m.username desc, m.id desc", Member.class)
+                    .setParameter("age", age)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        return em.createQuery("select m from Member m where m.age = :age" +
+                        " and (m.username < :username or (m.username = :username and m.id < :id))" +
+                        " order by m.username desc, m.id desc", Member.class)
+                .setParameter("age", age)
+                .setParameter("username", after.getUsername())
+                .setParameter("id", after.getId())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     public long totalCount(int age) {
-        return em.createQuery("select count(m) from Member m where m.age = :age", Long.class).setParameter("age", age).getSingleResult();
+        return totalCountStrategy.count(Member.class, "Member.countByAge", new Object[]{age},
+                () -> em.createQuery("select count(m) from Member m where m.age = :age", Long.class).setParameter("age", age).getSingleResult())
+                .getValue();
     }
 
     // 벌크성 수정 쿼리
+    // - 엔티티 리스너를 거치지 않으므로 count 캐시 등을 직접 무효화한다
     public int bulkAgePlus(int age) {
-       return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age").setParameter("age", age).executeUpdate();
+       int updated = em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age").setParameter("age", age).executeUpdate();
+       entityChangePublisher.publish(Member.class, null);
+       return updated;
     }
 }
@@ -2,6 +2,7 @@ package study.datajpa.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import study.datajpa.dto.MemberDto;
@@ -12,6 +13,7 @@ import javax.persistence.QueryHint;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom ,JpaSpecificationExecutor<Member>{
 //    List<Member> findByUsername(String username);
@@ -19,34 +21,62 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
     // 스프링 데이터 JPA는 메소드 이름을 분석해서 JPQL을 생성하고 실행
 
-    @Query(name = "Member.findByUsername")  // 얘를 주석처리해도 실행이 된다.
+    // findByUsername은 MemberRepositoryCustom에서 UsernameIdCache를 거쳐 조회한다
     // 스프링 데이터 JPA는 선언한 "도메인 클래스 + .(점) + 메서드 이름"으로 Named 쿼리를 찾아서 실행
     // - 만약 실행할 Named 쿼리가 없으면 메서드 이름으로 쿼리 생성 전략을 사용
-    List<Member> findByUsername(@Param("username") String username);
-    // @Param : 명확하게 JPQL이 있을 경우. 현재 Member 엔티티에는 NamedQuery로 JPQL이 작성되어 있다
+    // - 커스텀 구현에 같은 메서드가 있으면 쿼리를 만들지 않고 커스텀 구현을 호출한다
 
     @Query("select m from Member m where m.username = :username and m.age = :age")
     List<Member> findUser(@Param("username") String username, @Param("age") int age);
 
     // 단순히 값 하나를 조회
     // JPA 값 타입(@Embedded)도 이 방식으로 조회할 수 있다
+    // 쿼리 결과 캐시 : 자주 읽지만 거의 바뀌지 않는 프로젝션
+    // - 하이버네이트가 Member 테이블의 변경 시각을 추적해서, 변경 이후에는 캐시된 결과를 쓰지 않는다
+    @QueryHints(value = {
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "memberProjections")})
     @Query("select m.username from Member m")
     List<String> findUsernameList();
     
     // DTO로 직접 조회
     // 주의 : DTO로 직접 조회하려면 JPA의 new 명령어를 사용해야 한다
+    @QueryHints(value = {
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "memberProjections")})
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
+    // 단건 DTO 조회 (MemberNearCache의 로더)
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t where m.id = :id")
+    Optional<MemberDto> findMemberDtoById(@Param("id") Long id);
+
+    // DTO 스트림 조회
+    // - 결과를 List로 한 번에 올리지 않고 JDBC 커서로 fetchSize 만큼씩 가져온다
+    // - DTO는 영속성 컨텍스트에 쌓이지 않으므로 row 수와 관계없이 메모리 사용량이 일정하다
+    // - 주의 : 트랜잭션 안에서 사용하고, 다 쓴 스트림은 반드시 close 해야 한다
+    @QueryHints(value = {
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t")
+    Stream<MemberDto> streamMemberDto();
+
+    // 동적 프로젝션 : 반환 타입을 호출하는 쪽에서 정한다
+    // - UsernameOnly.class (인터페이스), UsernameOnlyDto.class (클래스), Member.class (엔티티) 모두 가능
+    // - 프로젝션으로 조회하면 필요한 컬럼만 select 하고, 엔티티 스냅샷/변경 감지 비용이 없다
+    <T> Optional<T> findProjectionById(Long id, Class<T> type);
+
+    <T> List<T> findProjectionsByUsername(String username, Class<T> type);
+
     // 컬렉션 파라미터 바인딩
     // Collection 타입으로 in절 지원
+    // - in_clause_parameter_padding : 바인딩 개수를 2의 거듭제곱으로 맞춰서 (3개 -> ?, ?, ?, ?) 쿼리 플랜 재사용
+    // - 수천 개 이상이면 findByNamesChunked
     @Query("select m from Member m where m.username in :names")
     List<Member> findByNames(@Param("names") Collection<String> names);
     
-    // 반환 타입
-    List<Member> findListByUsername(String username); // 컬렉션
-    Member findMemberByUsername(String username);    // 단건
-    Optional<Member> findOptionalByUsername(String username);   // 단건 Optional
+    // 반환 타입 : findListByUsername(컬렉션) / findMemberByUsername(단건) / findOptionalByUsername(단건 Optional)
+    // - username 조회이므로 MemberRepositoryCustom에서 UsernameIdCache를 거친다
 
     // 페이징
     @Query(value = "select m from Member m left join m.team t", countQuery = "select count(m.username) from Member m")
@@ -54,6 +84,16 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     // 쿼리가 단순할 경우에는 그냥 사용해도 되지만, 쿼리가 복잡해지면 카운트 쿼리를 분리하는 것이 좋다
     Page<Member> findByAge(int age, Pageable pageable);
     // Pageable : 페이징에 대한 조건(몇 개를 건너뛰고, 몇 개를 가져올지, 어떻게 정렬할지 등)
+    // 주의 : Page를 반환하는 메서드는 스프링 데이터가 매번 count 쿼리를 실행한다 (TotalCountStrategy 미적용, findPageByAge 참고)
+
+    // Slice : count 쿼리 없이 size + 1 개를 조회해서 다음 페이지가 있는지(hasNext)만 판단한다 (무한 스크롤)
+    // - 조회 전용이므로 readOnly 힌트로 스냅샷을 만들지 않는다
+    @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    Slice<Member> findSliceByAge(int age, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"team"}) // MemberDto의 teamName 때문에 지연 로딩이 일어나지 않게
+    @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    Slice<Member> findSliceBy(Pageable pageable);
 
     @Modifying(clearAutomatically = true)  // JPA의 executeUpdate의 역할을 하는 어노테이션. 벌크성 수정, 삭제 하려면 붙여야한다
     // clearAutomatically : 영속성 컨텍스트 초기화를 자동으로 해준다
@@ -83,8 +123,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     // JPA Hint
     // readOnly를 붙여두면 데이터를 호출하더라도, 영속성 컨텍스트에서 스냅샷을 준비하지 않는다 -> 변경 감지를 하지 않는다
-    @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
-    Member findReadOnlyByUsername(String username);
+    // - findSliceByAge 등에서 사용. findReadOnlyByUsername은 MemberRepositoryCustom에서 같은 효과(Session.setDefaultReadOnly)로 조회
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
 //    @Lock(LockModeType.OPTIMISTIC)
@@ -1,9 +1,58 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.CountedPage;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    // 키셋(seek) 페이징. after가 null이면 첫 페이지
+    List<Member> findAllAfter(MemberCursor after, int limit);
+
+    // totalCount를 TotalCountStrategy(캐시 / 추정치)로 구하는 페이징
+    CountedPage<Member> findMemberPage(Pageable pageable);
+
+    CountedPage<Member> findPageByAge(int age, Pageable pageable);
+
+    // 엔티티 대신 MemberDto로 바로 조회하는 페이징 (API 응답용)
+    CountedPage<MemberDto> findMemberDtoPage(Pageable pageable);
+
+    // 조건 조합(어떤 조건이 있는지) 별로 변환된 JPQL을 재사용하는 검색
+    List<Member> search(MemberSearchCondition condition);
+
+    // username으로 조회 : username -> id 캐시(UsernameIdCache) + 2차 캐시
+    // - 쓰기 트랜잭션 안에서는 캐시를 거치지 않고 Named 쿼리(Member.findByUsername)로 한 번에 조회
+    List<Member> findByUsername(String username);
+    List<Member> findListByUsername(String username); // 컬렉션
+    Member findMemberByUsername(String username);    // 단건 (없으면 null, 2건 이상이면 IncorrectResultSizeDataAccessException)
+    Optional<Member> findOptionalByUsername(String username);   // 단건 Optional
+    // 조회한 엔티티의 스냅샷을 만들지 않는다 -> 변경 감지를 하지 않는다 (readOnly 힌트와 같은 효과)
+    Member findReadOnlyByUsername(String username);
+
+    // findByNames의 대용량 버전 : names를 청크로 나눠서 조회하고 청크 순서대로 합친다 (ChunkedInQueryExecutor)
+    List<Member> findByNamesChunked(Collection<String> names);
+
+    // JDBC 배치 저장. 저장이 끝나면 영속성 컨텍스트를 비우므로 넘긴 엔티티들은 준영속 상태가 된다
+    int saveAllBatched(Iterable<Member> members);
+
+    // 작업 큐 : 조건에 맞고 아무도 가져가지 않은(또는 claimedAt이 expiredBefore 이전인) 회원을 id 순으로 최대 batchSize 만큼
+    // claimToken으로 표시하고, 표시한 건수를 반환한다
+    // - 행 잠금을 잡고 처리하는 대신 claim_token 컬럼을 조건부 UPDATE 하므로, 짧은 트랜잭션으로 커밋하면 다른 워커는 기다리지 않고 다음 row를 가져간다
+    // - 다른 워커와 같은 row를 두고 경쟁하면 먼저 커밋한 쪽만 표시된다 (claim_token is null 조건)
+    int claimBatch(Specification<Member> spec, int batchSize, String claimToken, LocalDateTime expiredBefore);
+
+    List<Member> findClaimed(String claimToken);
+
+    // 처리에 실패한 배치를 다시 가져갈 수 있게 되돌린다
+    int releaseClaim(String claimToken);
 }
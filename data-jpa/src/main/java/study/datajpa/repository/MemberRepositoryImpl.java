@@ -1,17 +1,282 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.ChunkedInQueryExecutor;
+import study.datajpa.repository.support.ConcurrentPageAssembler;
+import study.datajpa.repository.support.CountedPage;
+import study.datajpa.repository.support.CriteriaPlanCache;
+import study.datajpa.repository.support.TotalCountStrategy;
+import study.datajpa.repository.support.UsernameIdCache;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
     private final EntityManager em;
+    private final TotalCountStrategy totalCountStrategy;
+    private final CriteriaPlanCache criteriaPlanCache;
+    private final ConcurrentPageAssembler pageAssembler; // content / count 동시 실행
+    private final UsernameIdCache usernameIdCache;
+    private final ChunkedInQueryExecutor chunkedInQueryExecutor;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    @Override
+    public List<Member> findAllAfter(MemberCursor after, int limit) {
+        if (after == null) {
+            return em.createQuery("select m from Member m order by m.username desc, m.id desc", Member.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        // where (username, member_id) < (?, ?) 를 JPQL로 풀어서 작성
+        return em.createQuery("select m from Member m" +
+                        " where m.username < :username or (m.username = :username and m.id < :id)" +
+                        " order by m.username desc, m.id desc", Member.class)
+                .setParameter("username", after.getUsername())
+                .setParameter("id", after.getId())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public CountedPage<Member> findMemberPage(Pageable pageable) {
+        String jpql = QueryUtils.applySorting("select m from Member m", pageable.getSort(), "m");
+
+        return pageAssembler.assemble(pageable,
+                () -> paging(em.createQuery(jpql, Member.class), pageable).getResultList(),
+                () -> totalCountStrategy.count(Member.class, "Member.count", new Object[0],
+                        () -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult()));
+    }
+
+    @Override
+    public CountedPage<Member> findPageByAge(int age, Pageable pageable) {
+        String jpql = QueryUtils.applySorting("select m from Member m where m.age = :age", pageable.getSort(), "m");
+
+        return pageAssembler.assemble(pageable,
+                () -> paging(em.createQuery(jpql, Member.class), pageable)
+                        .setParameter("age", age)
+                        .getResultList(),
+                () -> totalCountStrategy.count(Member.class, "Member.countByAge", new Object[]{age},
+                        () -> em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+                                .setParameter("age", age)
+                                .getSingleResult()));
+    }
+
+    @Override
+    public CountedPage<MemberDto> findMemberDtoPage(Pageable pageable) {
+        // 정렬 기준도 별칭 m 으로 붙는다 (username, id, age ...)
+        String jpql = QueryUtils.applySorting(
+                "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t",
+                pageable.getSort(), "m");
+
+        return pageAssembler.assemble(pageable,
+                () -> paging(em.createQuery(jpql, MemberDto.class), pageable).getResultList(),
+                () -> totalCountStrategy.count(Member.class, "Member.count", new Object[0],
+                        () -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult()));
+    }
+
+    @Override
+    public List<Member> search(MemberSearchCondition condition) {
+        boolean hasUsername = StringUtils.hasText(condition.getUsername());
+        boolean hasTeamName = StringUtils.hasText(condition.getTeamName());
+
+        // 캐시 키는 값이 아니라 조건의 모양
+        String shape = "Member.search(username=" + hasUsername + ", teamName=" + hasTeamName + ")";
+        String jpql = criteriaPlanCache.getJpql(shape, () -> render(Member.class,
+                Specification.where(hasUsername ? MemberSpec.usernameParam() : null)
+                        .and(hasTeamName ? MemberSpec.teamNameParam() : null)));
+
+        TypedQuery<Member> query = em.createQuery(jpql, Member.class);
+        if (hasUsername) {
+            query.setParameter("username", condition.getUsername());
+        }
+        if (hasTeamName) {
+            query.setParameter("teamName", condition.getTeamName());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<Member> findByUsername(String username) {
+        return findAllByUsername(username);
+    }
+
+    @Override
+    public List<Member> findListByUsername(String username) {
+        return findAllByUsername(username);
+    }
+
+    @Override
+    public Member findMemberByUsername(String username) {
+        List<Member> members = findAllByUsername(username);
+        if (members.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, members.size());
+        }
+        return members.isEmpty() ? null : members.get(0);
+    }
+
+    @Override
+    public Optional<Member> findOptionalByUsername(String username) {
+        return Optional.ofNullable(findMemberByUsername(username));
+    }
+
+    @Override
+    public Member findReadOnlyByUsername(String username) {
+        // 이 사이에 새로 로딩되는 엔티티만 읽기 전용. 이미 영속성 컨텍스트에 있는 엔티티는 그대로 둔다
+        Session session = em.unwrap(Session.class);
+        boolean defaultReadOnly = session.isDefaultReadOnly();
+        session.setDefaultReadOnly(true);
+        try {
+            return findMemberByUsername(username);
+        } finally {
+            session.setDefaultReadOnly(defaultReadOnly);
+        }
+    }
+
+    private List<Member> findAllByUsername(String username) {
+        if (usernameIdCache.isBypassed()) {
+            // id 목록을 캐시하지 않으므로 id마다 em.find 하지 않고 한 번에 조회
+            return em.createNamedQuery("Member.findByUsername", Member.class)
+                    .setParameter("username", username)
+                    .getResultList();
+        }
+
+        List<Long> ids = usernameIdCache.get(username, key ->
+                em.createQuery("select m.id from Member m where m.username = :username order by m.id", Long.class)
+                        .setParameter("username", key)
+                        .getResultList());
+
+        List<Member> members = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Member member = em.find(Member.class, id); // 2차 캐시
+            // 캐시된 id 목록이 무효화되기 직전이라도 username이 바뀐 회원은 돌려주지 않는다
+            if (member != null && username.equals(member.getUsername())) {
+                members.add(member);
+            }
+        }
+        return members;
+    }
+
+    @Override
+    public List<Member> findByNamesChunked(Collection<String> names) {
+        return chunkedInQueryExecutor.execute(names, chunk ->
+                em.createQuery("select m from Member m where m.username in :names", Member.class)
+                        .setParameter("names", chunk)
+                        .getResultList());
+    }
+
+    // 대량 저장
+    // - hibernate.jdbc.batch_size 만큼 INSERT를 모아서 한 번의 네트워크 왕복으로 보낸다 (order_inserts로 같은 테이블끼리 정렬)
+    // - batch_size 마다 flush + clear 해서 영속성 컨텍스트(1차 캐시, 스냅샷)가 계속 커지지 않게 한다
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members) {
+        int count = 0;
+        for (Member member : members) {
+            em.persist(member);
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+
+    @Override
+    @Transactional
+    public int claimBatch(Specification<Member> spec, int batchSize, String claimToken, LocalDateTime expiredBefore) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Member> root = query.from(Member.class);
+        Predicate claimable = builder.or(
+                builder.isNull(root.get("claimToken")),
+                builder.lessThan(root.get("claimedAt"), expiredBefore));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, builder);
+        query.select(root.get("id"))
+                .where(predicate == null ? claimable : builder.and(predicate, claimable))
+                .orderBy(builder.asc(root.get("id")));
+
+        List<Long> candidates = em.createQuery(query)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        // 후보를 고른 뒤 다른 워커가 먼저 가져갔다면 조건에 걸리지 않아서 건너뛴다
+        return em.createQuery("update Member m set m.claimToken = :claimToken, m.claimedAt = :now" +
+                        " where m.id in :ids and (m.claimToken is null or m.claimedAt < :expiredBefore)")
+                .setParameter("claimToken", claimToken)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("ids", candidates)
+                .setParameter("expiredBefore", expiredBefore)
+                .executeUpdate();
+    }
+
+    @Override
+    public List<Member> findClaimed(String claimToken) {
+        return em.createQuery("select m from Member m where m.claimToken = :claimToken order by m.id", Member.class)
+                .setParameter("claimToken", claimToken)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int releaseClaim(String claimToken) {
+        return em.createQuery("update Member m set m.claimToken = null, m.claimedAt = null where m.claimToken = :claimToken")
+                .setParameter("claimToken", claimToken)
+                .executeUpdate();
+    }
+
+    // Criteria -> JPQL 렌더링 (하이버네이트가 Criteria를 실행할 때 만드는 JPQL과 같다)
+    private <T> String render(Class<T> type, Specification<T> spec) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(type);
+        Root<T> root = query.from(type);
+        Predicate predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root);
+        return em.createQuery(query).unwrap(org.hibernate.query.Query.class).getQueryString();
+    }
+
+    private <T> TypedQuery<T> paging(TypedQuery<T> query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
 }
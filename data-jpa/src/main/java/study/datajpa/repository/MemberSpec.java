@@ -26,4 +26,19 @@ public class MemberSpec {
         return (Specification<Member>) (root, query, builder) ->
                 builder.equal(root.get("username"), username);
     }
-}
\ No newline at end of file
+
+    // 값 대신 이름 있는 파라미터(:username, :teamName)로 조건을 만든다
+    // - 값이 달라도 같은 조합이면 같은 JPQL이 되므로, 변환된 쿼리를 재사용할 수 있다 (CriteriaPlanCache)
+    // - 파라미터 값은 쿼리를 만든 쪽에서 바인딩해야 하므로 findAll(spec)에는 쓸 수 없다
+    public static Specification<Member> usernameParam() {
+        return (Specification<Member>) (root, query, builder) ->
+                builder.equal(root.get("username"), builder.parameter(String.class, "username"));
+    }
+
+    public static Specification<Member> teamNameParam() {
+        return (Specification<Member>) (root, query, builder) -> {
+            Join<Member, Team> t = root.join("team", JoinType.INNER);
+            return builder.equal(t.get("name"), builder.parameter(String.class, "teamName"));
+        };
+    }
+}
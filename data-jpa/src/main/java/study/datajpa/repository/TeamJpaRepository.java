@@ -35,4 +35,11 @@ public class TeamJpaRepository {
     public long count() {
         return em.createQuery("select count(t) from Team t", Long.class).getSingleResult();
     }
+
+    // 팀은 2차 캐시(READ_WRITE)에 올라가 있다
+    // - save / delete / 변경 감지 / JPQL 벌크 연산은 하이버네이트가 캐시를 함께 갱신한다
+    // - 네이티브 SQL이나 다른 애플리케이션이 테이블을 직접 바꾼 경우에는 이 메서드로 비워야 한다
+    public void evictCache() {
+        em.getEntityManagerFactory().getCache().evict(Team.class);
+    }
 }
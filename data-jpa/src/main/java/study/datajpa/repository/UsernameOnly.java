@@ -0,0 +1,8 @@
+package study.datajpa.repository;
+
+// 인터페이스 기반 Closed 프로젝션
+// - 스프링 데이터 JPA가 프록시 구현체를 만들고, select 절에는 username 컬럼만 들어간다
+// - 엔티티가 아니므로 영속성 컨텍스트에 스냅샷이 생기지 않고, 변경 감지 대상도 아니다
+public interface UsernameOnly {
+    String getUsername();
+}
@@ -0,0 +1,16 @@
+package study.datajpa.repository;
+
+// 클래스 기반 프로젝션
+// - 생성자의 파라미터 이름으로 매칭해서 select new ... 로 조회한다
+public class UsernameOnlyDto {
+
+    private final String username;
+
+    public UsernameOnlyDto(String username) {
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
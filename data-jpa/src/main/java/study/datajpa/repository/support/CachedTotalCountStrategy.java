@@ -0,0 +1,21 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+// 정확한 count + 캐시 (기본값)
+@Component
+@ConditionalOnProperty(name = "datajpa.count.mode", havingValue = "exact", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CachedTotalCountStrategy implements TotalCountStrategy {
+
+    private final TotalCountCache totalCountCache;
+
+    @Override
+    public TotalCount count(Class<?> entityType, String queryKey, Object[] params, LongSupplier exactCount) {
+        return TotalCount.exact(totalCountCache.get(entityType, queryKey, params, exactCount));
+    }
+}
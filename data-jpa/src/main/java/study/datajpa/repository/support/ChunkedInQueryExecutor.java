@@ -0,0 +1,95 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+// 큰 in 절 쿼리를 청크로 나눠서 실행
+// - in (?, ?, ...) 에 수만 개를 한 번에 바인딩하면 DB의 파라미터 개수 제한에 걸리고,
+//   크기마다 다른 SQL이 되어 쿼리 플랜 캐시가 가득 찬다
+// - chunk-size 개씩 나눠서 실행하고 결과는 청크 순서대로 합친다. 마지막 청크는 in_clause_parameter_padding 으로 2의 거듭제곱 크기에 맞춰진다
+// - 트랜잭션(또는 OSIV의 영속성 컨텍스트) 밖에서는 청크를 스레드 풀에서 병렬로, 각자 읽기 전용 트랜잭션으로 실행한다
+// - 안에서는 결과 엔티티가 호출한 쪽 영속성 컨텍스트에 있어야 하므로 같은 스레드에서 순서대로 실행한다
+@Component
+public class ChunkedInQueryExecutor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final int chunkSize;
+
+    public ChunkedInQueryExecutor(EntityManagerFactory entityManagerFactory,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${datajpa.in-query.chunk-size:1024}") int chunkSize,
+                                  @Value("${datajpa.in-query.threads:4}") int threads) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param values in 절에 바인딩할 값. 중복은 한 번만 바인딩한다 (in 절 하나로 조회한 것과 같은 결과)
+     * @param query  청크 하나를 조회하는 쿼리
+     */
+    public <V, T> List<T> execute(Collection<V> values, Function<List<V>, List<T>> query) {
+        List<List<V>> chunks = chunks(values);
+        if (chunks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (chunks.size() == 1 || isPersistenceContextBound()) {
+            List<T> result = new ArrayList<>();
+            chunks.forEach(chunk -> result.addAll(query.apply(chunk)));
+            return result;
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(chunks.size());
+        for (List<V> chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> readOnlyTransaction.execute(status -> query.apply(chunk)), executor));
+        }
+        try {
+            List<T> result = new ArrayList<>();
+            futures.forEach(future -> result.addAll(future.join())); // 청크 순서대로
+            return result;
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private <V> List<List<V>> chunks(Collection<V> values) {
+        List<V> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        List<List<V>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            chunks.add(distinct.subList(from, Math.min(from + chunkSize, distinct.size())));
+        }
+        return chunks;
+    }
+
+    private boolean isPersistenceContextBound() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.hasResource(entityManagerFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,101 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// 페이지 조회 시 content 쿼리와 count 쿼리를 동시에 실행
+// - count는 별도 스레드 + 별도 트랜잭션(REQUIRES_NEW, readOnly) = 별도 커넥션에서 실행되고, content는 호출한 스레드에서 실행된다
+// - 응답 시간은 두 쿼리의 합이 아니라 둘 중 느린 쪽이 된다
+// - count가 timeout-ms 안에 끝나지 않으면 기다리지 않고 "최소 이만큼은 있다"는 추정치(offset + content + 1)로 응답한다
+// - 쓰기 트랜잭션 안에서는 아직 커밋되지 않은 변경이 다른 커넥션에서 보이지 않으므로 기존처럼 순서대로 실행한다
+@Slf4j
+@Component
+public class ConcurrentPageAssembler {
+
+    private final TransactionTemplate countTransaction;
+    private final ExecutorService executor;
+    private final boolean async;
+    private final long timeoutMillis;
+
+    public ConcurrentPageAssembler(PlatformTransactionManager transactionManager,
+                                   @Value("${datajpa.count.async:true}") boolean async,
+                                   @Value("${datajpa.count.timeout-ms:2000}") long timeoutMillis,
+                                   @Value("${datajpa.count.threads:4}") int threads) {
+        this.countTransaction = new TransactionTemplate(transactionManager);
+        this.countTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.countTransaction.setReadOnly(true);
+        // 타임아웃 후 버려진 count도 DB에서 계속 돌지 않도록 쿼리 타임아웃을 건다 (초 단위)
+        this.countTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis + 999)));
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.async = async;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public <T> CountedPage<T> assemble(Pageable pageable, Supplier<List<T>> content, Supplier<TotalCount> total) {
+        if (!async || pageable.isUnpaged() || isWriteTransaction()) {
+            return CountedPage.of(content.get(), pageable, total);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        CompletableFuture<TotalCount> count = CompletableFuture.supplyAsync(
+                () -> countTransaction.execute(status -> total.get()), executor);
+
+        List<T> rows = fetchContent(content, count);
+        CountedPage<T> page = CountedPage.of(rows, pageable, () -> await(count, deadline, pageable, rows.size()));
+        count.cancel(true); // content 만으로 전체 개수를 알 수 있어서 count가 필요 없었던 경우
+        return page;
+    }
+
+    private <T> List<T> fetchContent(Supplier<List<T>> content, CompletableFuture<TotalCount> count) {
+        try {
+            return content.get();
+        } catch (RuntimeException e) {
+            count.cancel(true);
+            throw e;
+        }
+    }
+
+    private TotalCount await(CompletableFuture<TotalCount> count, long deadline, Pageable pageable, int contentSize) {
+        try {
+            return count.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            count.cancel(true);
+            log.warn("count query timed out after {}ms, page {} answered with an estimated total", timeoutMillis, pageable);
+            return TotalCount.estimated(pageable.getOffset() + contentSize + 1);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean isWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,44 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// totalCount가 추정치인지(totalEstimated)를 함께 내려주는 Page
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final boolean totalEstimated;
+
+    public CountedPage(List<T> content, Pageable pageable, TotalCount total) {
+        super(content, pageable, total.getValue());
+        this.totalEstimated = total.isEstimated();
+    }
+
+    // PageableExecutionUtils.getPage()와 같은 규칙으로, 조회된 content 만으로 전체 개수를 알 수 있으면 count를 생략한다
+    public static <T> CountedPage<T> of(List<T> content, Pageable pageable, Supplier<TotalCount> totalSupplier) {
+        if (pageable.isUnpaged()) {
+            return new CountedPage<>(content, pageable, TotalCount.exact(content.size()));
+        }
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new CountedPage<>(content, pageable, TotalCount.exact(content.size()));
+        }
+        if (!content.isEmpty() && content.size() < pageable.getPageSize()) {
+            return new CountedPage<>(content, pageable, TotalCount.exact(pageable.getOffset() + content.size()));
+        }
+        return new CountedPage<>(content, pageable, totalSupplier.get());
+    }
+
+    public boolean isTotalEstimated() {
+        return totalEstimated;
+    }
+
+    @Override
+    public <U> CountedPage<U> map(Function<? super T, ? extends U> converter) {
+        List<U> converted = getContent().stream().map(converter).collect(Collectors.toList());
+        return new CountedPage<>(converted, getPageable(), new TotalCount(getTotalElements(), totalEstimated));
+    }
+}
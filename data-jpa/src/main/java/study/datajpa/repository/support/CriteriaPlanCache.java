@@ -0,0 +1,85 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Specification(Criteria) 조합의 "모양" 별로 변환된 JPQL을 캐시
+// - 키에는 어떤 조건이 들어갔는지만 넣고 값은 넣지 않는다. 값은 이름 있는 파라미터(:username)로 바인딩
+// - hit : Criteria 트리 생성 + JPQL 렌더링을 건너뛰고, 같은 JPQL 문자열이므로 하이버네이트 쿼리 플랜 캐시(JPQL -> SQL)도 hit
+// - datajpa.criteria.plan.cache.size, datajpa.criteria.plan.cache.requests{result=hit|miss}, datajpa.criteria.plan.render
+// - MemberRepository.search 만 사용한다. findAll(MemberSpec...) 같은 JpaSpecificationExecutor 호출은 매번 Criteria를 만들고,
+//   literal_handling_mode=bind 덕분에 같은 모양이면 하이버네이트 쿼리 플랜 캐시만 재사용된다
+@Component
+public class CriteriaPlanCache implements MeterBinder {
+
+    private final Map<String, String> plans = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong renderNanos = new AtomicLong();
+
+    public CriteriaPlanCache(@Value("${datajpa.criteria-plan.max-entries:256}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    // renderer : Criteria를 만들어서 JPQL로 렌더링한다. 캐시에 없을 때만 호출
+    public String getJpql(String shapeKey, Supplier<String> renderer) {
+        String jpql = plans.get(shapeKey);
+        if (jpql != null) {
+            hits.incrementAndGet();
+            return jpql;
+        }
+
+        misses.incrementAndGet();
+        long start = System.nanoTime();
+        jpql = renderer.get();
+        renderNanos.addAndGet(System.nanoTime() - start);
+
+        // 모양의 개수는 조건 조합 수로 제한되지만, 잘못 만든 키로 무한히 커지지 않도록 막아둔다
+        if (plans.size() >= maxEntries) {
+            plans.clear();
+        }
+        plans.put(shapeKey, jpql);
+        return jpql;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        return plans.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datajpa.criteria.plan.cache.size", plans, Map::size)
+                .register(registry);
+        FunctionCounter.builder("datajpa.criteria.plan.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("datajpa.criteria.plan.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(registry);
+        // miss 때마다 Criteria 생성 + JPQL 렌더링에 걸린 시간 (JPQL -> SQL 변환은 createQuery 에서 일어나므로 포함하지 않는다)
+        FunctionTimer.builder("datajpa.criteria.plan.render", this,
+                        cache -> cache.misses.get(), cache -> cache.renderNanos.get(), TimeUnit.NANOSECONDS)
+                .register(registry);
+    }
+}
@@ -0,0 +1,72 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// 캐시 무효화용 이벤트 발행기
+// - 변경 즉시 한 번 발행하고, 트랜잭션 안이라면 커밋/롤백 이후에 한 번 더 발행한다
+// - 커밋 전에 다른 스레드가 예전 값으로 캐시를 다시 채워도 트랜잭션이 끝나면 지워진다
+// - 대량 저장처럼 한 트랜잭션에서 변경이 많으면 트랜잭션 종료 시점의 이벤트는 엔티티 타입 단위로 합친다
+@Component
+@RequiredArgsConstructor
+public class EntityChangePublisher {
+
+    private static final int MAX_PENDING_EVENTS = 1000;
+
+    private final ApplicationEventPublisher publisher;
+
+    public void publish(Class<?> entityType, Object id) {
+        EntityChangedEvent event = new EntityChangedEvent(entityType, id);
+        publisher.publishEvent(event);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingEvents().add(event);
+        }
+    }
+
+    private PendingEvents pendingEvents() {
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private class PendingEvents implements TransactionSynchronization {
+        private final Set<EntityChangedEvent> events = new LinkedHashSet<>();
+
+        void add(EntityChangedEvent event) {
+            if (events.contains(new EntityChangedEvent(event.getEntityType(), null))) {
+                return; // 이미 타입 단위로 무효화할 예정
+            }
+            events.add(event);
+            if (events.size() > MAX_PENDING_EVENTS) {
+                collapse();
+            }
+        }
+
+        // id 단위 이벤트를 엔티티 타입 단위 벌크 이벤트로 합친다
+        private void collapse() {
+            Set<EntityChangedEvent> collapsed = new LinkedHashSet<>();
+            for (EntityChangedEvent event : events) {
+                collapsed.add(new EntityChangedEvent(event.getEntityType(), null));
+            }
+            events.clear();
+            events.addAll(collapsed);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EntityChangePublisher.this);
+            events.forEach(publisher::publishEvent);
+        }
+    }
+}
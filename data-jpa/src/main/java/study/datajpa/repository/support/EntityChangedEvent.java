@@ -0,0 +1,29 @@
+package study.datajpa.repository.support;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+// 엔티티가 추가/수정/삭제 되었음을 알리는 이벤트
+// - id가 null이면 벌크 연산처럼 어떤 row가 바뀌었는지 알 수 없는 경우
+// - entityType이 null이면 어떤 엔티티가 바뀌었는지도 알 수 없는 경우 (전부 무효화)
+@Getter
+@ToString
+@EqualsAndHashCode
+public class EntityChangedEvent {
+    private final Class<?> entityType;
+    private final Object id;
+
+    public EntityChangedEvent(Class<?> entityType, Object id) {
+        this.entityType = entityType;
+        this.id = id;
+    }
+
+    public boolean affects(Class<?> type) {
+        return entityType == null || type.isAssignableFrom(entityType);
+    }
+
+    public boolean isBulk() {
+        return id == null;
+    }
+}
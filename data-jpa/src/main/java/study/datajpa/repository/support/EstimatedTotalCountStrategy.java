@@ -0,0 +1,53 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+// H2 테이블 통계(INFORMATION_SCHEMA.TABLES.ROW_COUNT_ESTIMATE)를 이용한 추정 count
+// - 통계는 테이블 전체 row 수만 알려주므로 조건 없는 count에만 사용한다
+// - 조건이 있는 count는 정확한 count + 캐시로 처리
+@Component
+@ConditionalOnProperty(name = "datajpa.count.mode", havingValue = "approximate")
+public class EstimatedTotalCountStrategy implements TotalCountStrategy {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TotalCountCache totalCountCache;
+
+    public EstimatedTotalCountStrategy(TotalCountCache totalCountCache) {
+        this.totalCountCache = totalCountCache;
+    }
+
+    @Override
+    public TotalCount count(Class<?> entityType, String queryKey, Object[] params, LongSupplier exactCount) {
+        if (params.length == 0) {
+            Long estimate = rowCountEstimate(entityType);
+            if (estimate != null) {
+                return TotalCount.estimated(estimate);
+            }
+        }
+        return TotalCount.exact(totalCountCache.get(entityType, queryKey, params, exactCount));
+    }
+
+    private Long rowCountEstimate(Class<?> entityType) {
+        List<?> result = em.createNativeQuery("select ROW_COUNT_ESTIMATE from INFORMATION_SCHEMA.TABLES" +
+                        " where TABLE_SCHEMA = 'PUBLIC' and TABLE_NAME = ?1")
+                .setParameter(1, tableName(entityType).toUpperCase())
+                .getResultList();
+        return result.isEmpty() ? null : ((Number) result.get(0)).longValue();
+    }
+
+    private String tableName(Class<?> entityType) {
+        SessionFactoryImplementor sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        AbstractEntityPersister persister = (AbstractEntityPersister) sessionFactory.getMetamodel().entityPersister(entityType);
+        return persister.getTableName();
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+// @Modifying 벌크 쿼리는 영속성 컨텍스트와 엔티티 리스너를 거치지 않으므로 여기서 변경 이벤트를 발행한다
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ModifyingQueryAspect {
+
+    private final EntityChangePublisher entityChangePublisher;
+
+    @AfterReturning("@annotation(org.springframework.data.jpa.repository.Modifying)")
+    public void afterModifying(JoinPoint joinPoint) {
+        Class<?>[] typeArguments = GenericTypeResolver.resolveTypeArguments(
+                joinPoint.getSignature().getDeclaringType(), Repository.class);
+        Class<?> domainType = typeArguments == null ? null : typeArguments[0];
+        entityChangePublisher.publish(domainType, null);
+    }
+}
@@ -0,0 +1,87 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.QueryHint;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 쿼리 결과 캐시를 사용하는 리포지토리 메서드 별 hit / miss / hit ratio 메트릭
+// - org.hibernate.cacheable 힌트가 붙은 @Query 메서드를 찾아서 하이버네이트 쿼리 통계와 연결한다
+// - hibernate.query.cache.requests{query, result=hit|miss}, hibernate.query.cache.hit.ratio{query}
+@Component
+public class QueryCacheMetrics implements MeterBinder {
+
+    private static final String CACHEABLE_HINT = "org.hibernate.cacheable";
+
+    private final Statistics statistics;
+    private final ApplicationContext applicationContext;
+
+    public QueryCacheMetrics(EntityManagerFactory entityManagerFactory, ApplicationContext applicationContext) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cachedQueries().forEach((name, jpql) -> {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(jpql);
+            FunctionCounter.builder("hibernate.query.cache.requests", queryStatistics, QueryStatistics::getCacheHitCount)
+                    .tag("query", name)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.query.cache.requests", queryStatistics, QueryStatistics::getCacheMissCount)
+                    .tag("query", name)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("hibernate.query.cache.hit.ratio", queryStatistics, QueryCacheMetrics::hitRatio)
+                    .tag("query", name)
+                    .register(registry);
+        });
+    }
+
+    // 메서드 이름(MemberRepository.findMemberDto) -> JPQL
+    private Map<String, String> cachedQueries() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            Class<?> repositoryInterface = repositories.getRequiredRepositoryInformation(domainType).getRepositoryInterface();
+            for (Method method : repositoryInterface.getMethods()) {
+                Query query = method.getAnnotation(Query.class);
+                QueryHints hints = method.getAnnotation(QueryHints.class);
+                if (query != null && hints != null && isCacheable(hints)) {
+                    queries.put(repositoryInterface.getSimpleName() + "." + method.getName(), query.value());
+                }
+            }
+        }
+        return queries;
+    }
+
+    private boolean isCacheable(QueryHints hints) {
+        for (QueryHint hint : hints.value()) {
+            if (CACHEABLE_HINT.equals(hint.name()) && Boolean.parseBoolean(hint.value())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double hitRatio(QueryStatistics queryStatistics) {
+        long hit = queryStatistics.getCacheHitCount();
+        long total = hit + queryStatistics.getCacheMissCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+// 전체 개수와 그 값이 추정치인지 여부
+@Getter
+@ToString
+public class TotalCount {
+    private final long value;
+    private final boolean estimated;
+
+    public TotalCount(long value, boolean estimated) {
+        this.value = value;
+        this.estimated = estimated;
+    }
+
+    public static TotalCount exact(long value) {
+        return new TotalCount(value, false);
+    }
+
+    public static TotalCount estimated(long value) {
+        return new TotalCount(value, true);
+    }
+}
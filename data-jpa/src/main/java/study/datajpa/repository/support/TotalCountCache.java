@@ -0,0 +1,79 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// 엔티티 타입 별 count 결과 캐시
+// - 해당 엔티티의 insert/update/delete, 벌크 수정이 일어나면 통째로 비운다
+// - 쓰기 트랜잭션 안에서는 아직 커밋되지 않은 변경이 count에 섞일 수 있으므로 캐시하지 않는다
+@Component
+public class TotalCountCache {
+
+    private final Map<Class<?>, Entries> caches = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public TotalCountCache(@Value("${datajpa.count.cache-max-entries:1000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long get(Class<?> entityType, String queryKey, Object[] params, LongSupplier exactCount) {
+        if (!isCacheable()) {
+            return exactCount.getAsLong();
+        }
+
+        Entries entries = caches.computeIfAbsent(entityType, type -> new Entries());
+        List<Object> key = key(queryKey, params);
+        Long cached = entries.values.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // count 하는 사이에 변경이 있었다면 결과를 캐시에 넣지 않는다
+        long generation = entries.generation.get();
+        long count = exactCount.getAsLong();
+        if (entries.generation.get() == generation) {
+            if (entries.values.size() >= maxEntries) {
+                entries.values.clear();
+            }
+            entries.values.put(key, count);
+        }
+        return count;
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        caches.forEach((type, entries) -> {
+            if (event.affects(type)) {
+                entries.generation.incrementAndGet();
+                entries.values.clear();
+            }
+        });
+    }
+
+    private boolean isCacheable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private List<Object> key(String queryKey, Object[] params) {
+        List<Object> key = new ArrayList<>(params.length + 1);
+        key.add(queryKey);
+        key.addAll(Arrays.asList(params));
+        return key;
+    }
+
+    private static class Entries {
+        private final Map<List<Object>, Long> values = new ConcurrentHashMap<>();
+        private final AtomicLong generation = new AtomicLong();
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.repository.support;
+
+import java.util.function.LongSupplier;
+
+// 페이징의 전체 개수(totalCount)를 구하는 전략
+// - datajpa.count.mode = exact       : 정확한 count 쿼리 결과를 쿼리 모양 + 파라미터 별로 캐시
+// - datajpa.count.mode = approximate : 조건 없는 count는 DB 통계 정보의 추정치를 사용
+public interface TotalCountStrategy {
+
+    /**
+     * @param entityType count 대상 엔티티. 캐시 무효화와 통계 조회에 사용
+     * @param queryKey   count 쿼리를 구분하는 이름 (예: "Member.countByAge")
+     * @param params     count 쿼리 파라미터. 없으면 조건 없는 전체 count
+     * @param exactCount 실제 count 쿼리
+     */
+    TotalCount count(Class<?> entityType, String queryKey, Object[] params, LongSupplier exactCount);
+}
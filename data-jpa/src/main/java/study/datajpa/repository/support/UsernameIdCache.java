@@ -0,0 +1,107 @@
+package study.datajpa.repository.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// username -> 회원 id 캐시 (natural id -> pk)
+// - 하이버네이트 @NaturalId는 unique 제약을 만들지만 username은 유일하지 않으므로, username 하나에 id 목록을 저장한다
+// - 찾은 id로 em.find 하면 2차 캐시(Member 리전)에서 엔티티를 가져오므로, 캐시가 채워진 뒤에는 SQL이 나가지 않는다
+// - 무효화
+//   - 새 username : EntityChangeListener가 UsernameKey 이벤트(id 자리에 username)로 알린다
+//   - 예전 username : 캐시에 넣을 때 기록해둔 id -> username 으로 찾는다
+//     (username이 만료 / 크기 초과 / 무효화로 캐시에서 빠지면 removalListener가 그 id들도 지운다)
+//   - 벌크 수정 : 전부
+// - 쓰기 트랜잭션 안에서는 아직 flush 되지 않은 변경이 있을 수 있으므로 캐시를 거치지 않는다
+@Component
+public class UsernameIdCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "memberUsernameCache";
+
+    // EntityChangedEvent의 entityType 자리에 쓰는 표시용 타입
+    public static final class UsernameKey {
+        private UsernameKey() {
+        }
+    }
+
+    private final Cache<String, List<Long>> cache;
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+
+    public UsernameIdCache(@Value("${datajpa.username-cache.max-size:10000}") long maxSize,
+                           @Value("${datajpa.username-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .executor(Runnable::run) // removalListener를 제거한 스레드에서 바로 실행
+                .removalListener((String username, List<Long> ids, RemovalCause cause) -> {
+                    if (ids != null) {
+                        // 그 사이 다른 username으로 다시 기록된 id는 남긴다
+                        ids.forEach(id -> usernames.remove(id, username));
+                    }
+                })
+                .build();
+    }
+
+    public List<Long> get(String username, Function<String, List<Long>> loader) {
+        if (isBypassed()) {
+            return loader.apply(username);
+        }
+        return cache.get(username, key -> {
+            List<Long> ids = List.copyOf(loader.apply(key));
+            ids.forEach(id -> usernames.put(id, key));
+            return ids;
+        });
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getEntityType() == UsernameKey.class) {
+            if (event.isBulk()) {
+                cache.invalidateAll();
+            } else {
+                cache.invalidate(event.getId());
+            }
+        } else if (event.affects(Member.class)) {
+            if (event.isBulk() || !(event.getId() instanceof Long)) {
+                cache.invalidateAll();
+                usernames.clear();
+            } else {
+                String previous = usernames.remove(event.getId());
+                if (previous != null) {
+                    cache.invalidate(previous);
+                }
+            }
+        }
+    }
+
+    // 쓰기 트랜잭션 안에서는 캐시를 거치지 않는다
+    public boolean isBypassed() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    // 테스트용
+    int reverseEntryCount() {
+        return usernames.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+}
@@ -0,0 +1,132 @@
+package study.datajpa.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.support.EntityChangePublisher;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 청크 단위 벌크 수정
+// - update ... where m.age >= :age 한 번으로 처리하면 대상 row 전체를 긴 트랜잭션 동안 잠근다
+// - id 범위로 나눠서 청크마다 따로 커밋하므로 잠금은 짧게, 청크 크기 만큼만 잡힌다
+// - 청크는 크기가 정해진 스레드 풀에서 병렬로 실행할 수 있고, 청크가 끝날 때마다 진행률과 처리량을 로그로 남긴다
+// - 주의 : 청크마다 커밋되므로 중간에 실패하면 이미 끝난 청크는 되돌려지지 않는다. 다시 실행해도 안전한 수정에 사용한다
+//   청크 하나가 실패하면 아직 시작하지 않은 청크는 실행하지 않지만, 병렬 모드에서 이미 실행 중인 청크는 끝까지 커밋될 수 있다
+@Slf4j
+@Service
+public class ChunkedUpdateExecutor {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityChangePublisher entityChangePublisher;
+    private final ExecutorService executor;
+    private final int chunkSize;
+
+    public ChunkedUpdateExecutor(PlatformTransactionManager transactionManager,
+                                 EntityChangePublisher entityChangePublisher,
+                                 @Value("${datajpa.bulk.chunk-size:10000}") int chunkSize,
+                                 @Value("${datajpa.bulk.threads:4}") int threads) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.entityChangePublisher = entityChangePublisher;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param entityType  수정 대상 엔티티. id 범위를 구하고 캐시를 무효화하는 데 사용
+     * @param updateJpql  :fromId, :toId 조건을 포함한 벌크 수정 JPQL
+     *                    (예: update Member m set m.age = m.age + 1 where m.age >= :age and m.id >= :fromId and m.id < :toId)
+     * @param parameters  :fromId, :toId 외의 파라미터
+     * @param parallel    true면 청크를 스레드 풀에서 병렬로 실행
+     */
+    public ChunkedUpdateResult execute(Class<?> entityType, String updateJpql, Map<String, Object> parameters, boolean parallel) {
+        long start = System.currentTimeMillis();
+        List<long[]> ranges = idRanges(entityType);
+        AtomicLong updatedRows = new AtomicLong();
+        AtomicInteger doneChunks = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (long[] range : ranges) {
+            Runnable chunk = () -> {
+                if (failed.get()) {
+                    return;
+                }
+                Integer updated;
+                try {
+                    updated = transactionTemplate.execute(status -> {
+                        Query query = em.createQuery(updateJpql)
+                                .setParameter("fromId", range[0])
+                                .setParameter("toId", range[1]);
+                        parameters.forEach(query::setParameter);
+                        return query.executeUpdate();
+                    });
+                } catch (RuntimeException e) {
+                    failed.set(true); // 아직 시작하지 않은 청크는 실행하지 않는다
+                    throw e;
+                }
+                entityChangePublisher.publish(entityType, null);
+
+                long total = updatedRows.addAndGet(updated == null ? 0 : updated);
+                long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+                log.info("chunked update {}/{} chunks, {} rows, {} rows/s",
+                        doneChunks.incrementAndGet(), ranges.size(), total, total * 1000 / elapsed);
+            };
+            if (parallel) {
+                futures.add(CompletableFuture.runAsync(chunk, executor));
+            } else {
+                chunk.run();
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return new ChunkedUpdateResult(updatedRows.get(), ranges.size(), System.currentTimeMillis() - start);
+    }
+
+    // [fromId, toId) 범위 목록
+    private List<long[]> idRanges(Class<?> entityType) {
+        String entityName = em.getMetamodel().entity(entityType).getName();
+        Object[] minMax = transactionTemplate.execute(status ->
+                em.createQuery("select min(e.id), max(e.id) from " + entityName + " e", Object[].class).getSingleResult());
+
+        List<long[]> ranges = new ArrayList<>();
+        if (minMax == null || minMax[0] == null) {
+            return ranges;
+        }
+        long min = ((Number) minMax[0]).longValue();
+        long max = ((Number) minMax[1]).longValue();
+        for (long from = min; from <= max; from += chunkSize) {
+            ranges.add(new long[]{from, Math.min(from + chunkSize, max + 1)});
+        }
+        return ranges;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,23 @@
+package study.datajpa.service;
+
+import lombok.Getter;
+import lombok.ToString;
+
+// 청크 단위 벌크 수정 결과
+@Getter
+@ToString
+public class ChunkedUpdateResult {
+    private final long updatedRows;
+    private final int chunks;
+    private final long elapsedMillis;
+
+    public ChunkedUpdateResult(long updatedRows, int chunks, long elapsedMillis) {
+        this.updatedRows = updatedRows;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? updatedRows : updatedRows * 1000 / elapsedMillis;
+    }
+}
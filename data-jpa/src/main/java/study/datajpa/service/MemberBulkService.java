@@ -0,0 +1,23 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import study.datajpa.entity.Member;
+
+import java.util.Map;
+
+// 대량 회원 수정
+// - MemberRepository.bulkAgePlus와 같은 수정을 member_id 범위 청크로 나눠서 실행한다
+@Service
+@RequiredArgsConstructor
+public class MemberBulkService {
+
+    private final ChunkedUpdateExecutor chunkedUpdateExecutor;
+
+    public ChunkedUpdateResult bulkAgePlus(int age) {
+        return chunkedUpdateExecutor.execute(Member.class,
+                "update Member m set m.age = m.age + 1 where m.age >= :age and m.id >= :fromId and m.id < :toId",
+                Map.of("age", age),
+                true);
+    }
+}
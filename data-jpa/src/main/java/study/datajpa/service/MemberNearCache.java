@@ -0,0 +1,67 @@
+package study.datajpa.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.EntityChangedEvent;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// id로 회원 한 명을 조회하는 요청(/members/{id}, /members2/{id})을 위한 프로세스 내부 캐시
+// - Caffeine : W-TinyLFU 방식으로, 자주 조회되는 소수의 회원이 한 번 조회되고 마는 회원들에게 밀려나지 않는다
+// - 저장 / 삭제 : 해당 회원만, 벌크 수정 / 팀 변경 : 전부 무효화 (EntityChangedEvent)
+// - 이벤트는 변경 직후와 커밋 이후에 두 번 오므로, 커밋 전에 다른 요청이 읽어 넣은 값도 지워진다
+// - 그래도 남을 수 있는 오래된 값은 ttl이 지나면 사라진다
+// - 메트릭 : cache.gets{cache=memberNearCache, result=hit|miss}, cache.evictions, cache.size ...
+@Component
+public class MemberNearCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "memberNearCache";
+
+    private final MemberRepository memberRepository;
+    private final Cache<Long, MemberDto> cache;
+
+    public MemberNearCache(MemberRepository memberRepository,
+                           @Value("${datajpa.near-cache.max-size:10000}") long maxSize,
+                           @Value("${datajpa.near-cache.ttl:60s}") Duration ttl) {
+        this.memberRepository = memberRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // 없는 회원은 캐시하지 않는다
+    public Optional<MemberDto> findById(Long id) {
+        return Optional.ofNullable(cache.get(id, key -> memberRepository.findMemberDtoById(key).orElse(null)));
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.affects(Member.class)) {
+            if (event.isBulk() || !(event.getId() instanceof Long)) {
+                cache.invalidateAll();
+            } else {
+                cache.invalidate(event.getId());
+            }
+        } else if (event.affects(Team.class)) {
+            cache.invalidateAll(); // teamName
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+}
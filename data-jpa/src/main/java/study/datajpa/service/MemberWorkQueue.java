@@ -0,0 +1,71 @@
+package study.datajpa.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// 여러 워커가 회원을 나눠서 처리하는 작업 큐
+// - findLockByUsername 처럼 잠금을 잡고 처리하면 워커들이 한 줄로 서게 된다
+//   (H2 1.4.200 / H2Dialect는 SKIP LOCKED, 잠금 타임아웃 힌트를 지원하지 않는다)
+// - 그래서 행 잠금 대신 claim_token 컬럼으로 배치를 가져간다
+//   1. 가져가기 : 조건부 UPDATE(claim_token is null) 후 바로 커밋하는 짧은 트랜잭션. 다른 워커는 이미 가져간 row를 건너뛴다
+//   2. 처리 : 내 claim_token의 회원을 조회해서 처리하고, claim_token을 비우고 커밋
+//   3. 실패 : claim_token을 비워서 다른 워커가 다시 가져갈 수 있게 한다
+// - 워커가 죽어서 비워지지 않은 claim은 lease 가 지나면 다시 가져갈 수 있다
+// - processor는 처리한 회원이 다시 spec 조건에 걸리지 않도록 상태를 바꿔야 한다
+// - 주의 : 가져가기는 벌크 UPDATE 이므로 Member 2차 캐시 리전이 비워진다
+@Service
+public class MemberWorkQueue {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate claimTransaction;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration lease;
+
+    public MemberWorkQueue(MemberRepository memberRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${datajpa.work-queue.batch-size:100}") int batchSize,
+                           @Value("${datajpa.work-queue.lease:5m}") Duration lease) {
+        this.memberRepository = memberRepository;
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.claimTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.lease = lease;
+    }
+
+    // 배치 하나를 가져와서 처리하고 커밋한다. 처리한 건수를 반환하며, 0이면 남은 작업이 없다
+    public int processNext(Specification<Member> spec, Consumer<List<Member>> processor) {
+        String claimToken = UUID.randomUUID().toString();
+        Integer claimed = claimTransaction.execute(status ->
+                memberRepository.claimBatch(spec, batchSize, claimToken, LocalDateTime.now().minus(lease)));
+        if (claimed == null || claimed == 0) {
+            return 0;
+        }
+
+        try {
+            Integer processed = transactionTemplate.execute(status -> {
+                List<Member> members = memberRepository.findClaimed(claimToken);
+                processor.accept(members);
+                members.forEach(Member::releaseClaim);
+                return members.size();
+            });
+            return processed == null ? 0 : processed;
+        } catch (RuntimeException e) {
+            claimTransaction.executeWithoutResult(status -> memberRepository.releaseClaim(claimToken));
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 스키마는 ddl-auto로 primary에만 만들어지므로, 테스트용 레플리카는 primary와 같은 DB를 가리킨다 (복제 지연 0)
+// 어느 쪽으로 라우팅 되었는지는 URL 대신 커넥션 풀(primary / replica)의 사용 중인 커넥션 수로 확인한다
+@SpringBootTest(properties = {
+        "datajpa.replica.enabled=true",
+        "datajpa.replica.hikari.jdbc-url=jdbc:h2:tcp://localhost/~/datajpa"})
+public class ReplicationRoutingDataSourceTest {
+
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberRepository memberRepository;
+    @Autowired @Qualifier("primaryDataSource") HikariDataSource primary;
+    @Autowired @Qualifier("replicaDataSource") HikariDataSource replica;
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.findByUsername("replicaMember").forEach(memberRepository::delete));
+    }
+
+    @Test
+    public void routeByReadOnly() throws Exception {
+        // given
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        TransactionTemplate read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+
+        // when
+        int[] writeConnections = write.execute(status -> {
+            memberRepository.saveAndFlush(new Member("replicaMember", 10));
+            return activeConnections();
+        });
+        Object[] readResult = read.execute(status -> {
+            List<Member> members = memberRepository.findByUsername("replicaMember");
+            return new Object[]{members, activeConnections()};
+        });
+
+        // then
+        assertThat(writeConnections[0]).isEqualTo(1); // primary
+        assertThat(writeConnections[1]).isZero();
+        @SuppressWarnings("unchecked")
+        List<Member> members = (List<Member>) readResult[0];
+        int[] readConnections = (int[]) readResult[1];
+        assertThat(members).extracting("username").containsExactly("replicaMember"); // 레플리카에서 조회
+        assertThat(readConnections[0]).isZero();
+        assertThat(readConnections[1]).isEqualTo(1); // replica
+    }
+
+    // {primary, replica} 사용 중인 커넥션 수
+    private int[] activeConnections() {
+        return new int[]{active(primary), active(replica)};
+    }
+
+    private int active(HikariDataSource dataSource) {
+        return dataSource.getHikariPoolMXBean() == null ? 0 : dataSource.getHikariPoolMXBean().getActiveConnections();
+    }
+}
@@ -1,5 +1,7 @@
 package study.datajpa.entity;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
@@ -10,6 +12,7 @@ import javax.persistence.PersistenceContext;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -50,4 +53,25 @@ class TeamTest {
         }
         
     }
-}
\ No newline at end of file
+
+    @Test
+    public void secondLevelCache() throws Exception {
+        // given
+        Team team = new Team("cachedTeam");
+        em.persist(team);
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        em.find(Team.class, team.getId()); // 처음에는 DB에서 읽어서 2차 캐시에 넣는다
+        em.clear();
+        long hitCount = statistics.getSecondLevelCacheHitCount();
+
+        // when
+        Team findTeam = em.find(Team.class, team.getId());
+
+        // then
+        assertThat(findTeam.getName()).isEqualTo("cachedTeam");
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(hitCount);
+    }
+}
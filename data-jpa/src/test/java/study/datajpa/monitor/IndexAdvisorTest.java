@@ -0,0 +1,34 @@
+package study.datajpa.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "datajpa.index-advisor.enabled=true")
+public class IndexAdvisorTest {
+
+    @Autowired IndexAdvisor indexAdvisor;
+
+    @Test
+    public void analyze() throws Exception {
+        // when
+        IndexReport report = indexAdvisor.analyze();
+
+        // then
+        System.out.println(report);
+        // findByUsernameAndAgeGreaterThan, findUser : username = ? and age > ? (=)
+        assertThat(report.getSuggestions())
+                .extracting(IndexSuggestion::getDdl)
+                .contains("create index idx_member_username_age on member (username, age);");
+        IndexSuggestion usernameAge = report.getSuggestions().stream()
+                .filter(suggestion -> suggestion.getName().equals("idx_member_username_age"))
+                .findFirst().get();
+        assertThat(usernameAge.getSources()).contains("MemberRepository.findByUsernameAndAgeGreaterThan", "MemberRepository.findUser");
+
+        // 조건 없는 조회, 인덱스 없는 team.name 조건
+        assertThat(report.getFullScans()).anyMatch(scan -> scan.startsWith("MemberRepository.findUsernameList"));
+        assertThat(report.getFullScans()).anyMatch(scan -> scan.startsWith("MemberSpec.teamName") && scan.contains("team"));
+    }
+}
@@ -0,0 +1,48 @@
+package study.datajpa.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "datajpa.pool.advisor.enabled=true")
+public class PoolEndpointTest {
+
+    @Autowired PoolEndpoint poolEndpoint;
+    @Autowired PoolSizingAdvisor poolSizingAdvisor;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void pools() throws Exception {
+        // given
+        memberRepository.findByUsername("poolMember");
+        poolSizingAdvisor.sample();
+        memberRepository.findByUsername("poolMember");
+        poolSizingAdvisor.sample();
+
+        // when
+        Map<String, Object> pools = poolEndpoint.pools();
+
+        // then
+        System.out.println("pools = " + pools);
+        assertThat(pools).hasSize(1);
+        Map<String, Object> pool = (Map<String, Object>) pools.values().iterator().next();
+        assertThat(pool).containsKeys("maximumPoolSize", "active", "pending", "acquire", "usage");
+        PoolAdvice advice = (PoolAdvice) pool.get("advice");
+        assertThat(advice.getSamples()).isGreaterThanOrEqualTo(2);
+        assertThat(advice.getRecommendedMaximumPoolSize()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void recommendByLittlesLaw() throws Exception {
+        // 초당 200번 x 평균 50ms 점유 = 동시에 10개 필요, 여유 20%
+        assertThat(PoolSizingAdvisor.recommend(200 * 0.05, 4, 1.2)).isEqualTo(12);
+        // 평균은 낮아도 대기 스레드가 쌓였던 순간이 있으면 그 수요를 기준으로
+        assertThat(PoolSizingAdvisor.recommend(2.0, 15, 1.2)).isEqualTo(18);
+    }
+}
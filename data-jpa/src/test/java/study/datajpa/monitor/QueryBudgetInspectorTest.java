@@ -0,0 +1,113 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 트랜잭션 스코프는 TransactionTemplate으로 직접 연다 (테스트 트랜잭션 하나에 모든 SQL이 합산되지 않도록)
+// 2차 캐시를 끄면 팀 지연 로딩이 매번 SQL로 나간다
+@SpringBootTest(properties = {
+        "datajpa.query-budget.max-statements=10",
+        "datajpa.query-budget.repeat-threshold=3",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"})
+@AutoConfigureMockMvc
+public class QueryBudgetInspectorTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    public void nPlusOne() throws Exception {
+        // given : 회원마다 다른 팀
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Long> ids = transaction.execute(status -> {
+            List<Long> saved = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Team team = teamRepository.save(new Team("budgetTeam" + i));
+                saved.add(memberRepository.save(new Member("budgetMember" + i, i, team)).getId());
+            }
+            return saved;
+        });
+        double before = violations("nplusone");
+
+        // when : 회원을 하나씩 조회하고 팀을 지연 로딩
+        transaction.executeWithoutResult(status -> {
+            for (Long id : ids) {
+                Member member = memberRepository.findById(id).get();
+                member.getTeam().getName();
+            }
+        });
+
+        // then : 회원 조회, 팀 조회가 각각 N+1로 의심된다
+        assertThat(violations("nplusone") - before).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void budgetExceeded() throws Exception {
+        // given
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        double before = violations("budget");
+
+        // when : SELECT 11번 > 예산 10
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < 11; i++) {
+                memberRepository.findByUsername("budgetQuery" + i);
+            }
+        });
+
+        // then : 스코프 당 한 번만 알린다
+        assertThat(violations("budget") - before).isEqualTo(1);
+    }
+
+    @Test
+    public void batchWritesAreNotCounted() throws Exception {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            members.add(new Member("budgetBatch" + i, i));
+        }
+        double before = violations("budget");
+
+        // when : INSERT 배치 15번 + 시퀀스 호출
+        memberRepository.saveAllBatched(members);
+
+        // then
+        assertThat(violations("budget") - before).isZero();
+    }
+
+    @Test
+    public void requestScope() throws Exception {
+        // when
+        mockMvc.perform(get("/members")).andExpect(status().isOk());
+
+        // then
+        DistributionSummary statements = meterRegistry.find("datajpa.query.statements").tag("scope", "request").summary();
+        assertThat(statements).isNotNull();
+        assertThat(statements.count()).isGreaterThanOrEqualTo(1);
+    }
+
+    private double violations(String type) {
+        return meterRegistry.counter("datajpa.query.violations", "type", type).count();
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+public class SqlInstrumentationTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    public void timerByRepositoryMethod() throws Exception {
+        // given
+        memberRepository.save(new Member("sqlMember", 10));
+
+        // when
+        memberRepository.findByUsername("sqlMember"); // flush(insert) + select
+
+        // then
+        Timer timer = meterRegistry.find("datajpa.sql")
+                .tag("method", "MemberRepository.findByUsername")
+                .tag("type", "select")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+        System.out.println("sql = " + timer.getId().getTag("sql"));
+    }
+
+    @Test
+    public void normalize() throws Exception {
+        String sql = "select m.member_id from member m\n    where m.username = 'kim' and m.age > 10 and m.member_id in (?, ?, ?)";
+
+        assertThat(SqlNormalizer.normalize(sql))
+                .isEqualTo("select m.member_id from member m where m.username = ? and m.age > ? and m.member_id in (?)");
+    }
+}
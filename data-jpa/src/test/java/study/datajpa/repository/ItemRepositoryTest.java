@@ -3,13 +3,22 @@ package study.datajpa.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Item;
 
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 @SpringBootTest
 class ItemRepositoryTest {
 
     @Autowired private ItemRepository itemRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManager em;
 
     @Test
     public void save() throws Exception{
@@ -23,4 +32,49 @@ class ItemRepositoryTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    @Transactional
+    public void upsertAll() throws Exception{
+        // given
+        Timestamp createdDate = Timestamp.valueOf("2000-01-01 00:00:00");
+        jdbcTemplate.update("insert into item (id, created_date) values ('upsert1', ?)", createdDate);
+
+        // when
+        int count = itemRepository.upsertAll(List.of(new Item("upsert1"), new Item("upsert2"), new Item("upsert3")));
+
+        // then
+        assertThat(count).isEqualTo(2); // upsert2, upsert3 만 INSERT
+        assertThat(jdbcTemplate.queryForList(
+                "select id from item where id like 'upsert%' order by id", String.class))
+                .containsExactly("upsert1", "upsert2", "upsert3");
+        // 이미 있던 row의 createdDate는 바뀌지 않는다
+        assertThat(jdbcTemplate.queryForObject(
+                "select created_date from item where id = 'upsert1'", Timestamp.class)).isEqualTo(createdDate);
+        assertThat(jdbcTemplate.queryForObject(
+                "select created_date from item where id = 'upsert3'", Timestamp.class)).isAfter(createdDate);
+
+        // 다시 실행하면 INSERT 되는 row가 없다
+        assertThat(itemRepository.upsertAll(List.of(new Item("upsert2"), new Item("upsert3")))).isZero();
+    }
+
+    @Test
+    @Transactional
+    public void saveAfterUpsertAll() throws Exception{
+        // given
+        jdbcTemplate.update("insert into item (id, created_date) values ('upsertSave1', ?)", Timestamp.valueOf("2000-01-01 00:00:00"));
+        Item existing = new Item("upsertSave1");
+        Item inserted = new Item("upsertSave2");
+
+        // when
+        itemRepository.upsertAll(List.of(existing, inserted));
+        itemRepository.save(inserted); // INSERT 된 Item은 새 엔티티가 아니므로 merge (중복 키 INSERT를 하지 않는다)
+        em.flush();
+
+        // then
+        assertThat(inserted.isNew()).isFalse();
+        assertThat(existing.isNew()).isTrue(); // 이미 있던 id는 createdDate를 모른다
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from item where id = 'upsertSave2'", Integer.class)).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,68 @@
+package study.datajpa.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.IdAllocationStats;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// JDBC 배치 저장 (처리량 비교는 src/jmh 의 BatchInsertBenchmark)
+@SpringBootTest
+@Transactional
+public class MemberBatchInsertTest {
+
+    private static final int ROWS = 100;
+
+    @Autowired MemberRepository memberRepository;
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void saveAllBatched() throws Exception {
+        // given
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+
+        // when
+        int saved = memberRepository.saveAllBatched(members("batched"));
+
+        // then
+        assertThat(saved).isEqualTo(ROWS);
+        // INSERT 는 배치 하나(batch_size 100)로, 시퀀스는 블록(50) 당 한 번
+        assertThat(statistics.getPrepareStatementCount() - before).isLessThan(ROWS / 10);
+        assertThat(memberRepository.findByNames(List.of("batched0", "batched" + (ROWS - 1)))).hasSize(2);
+    }
+
+    @Test
+    public void pooledIdAllocation() throws Exception {
+        // given
+        IdAllocationStats.SequenceStats stats = IdAllocationStats.get("member_seq");
+        long callsBefore = stats.getSequenceCalls();
+
+        // when
+        memberRepository.saveAllBatched(members("pooled"));
+
+        // then
+        // 블록 크기(50) 만큼은 시퀀스를 다시 호출하지 않는다
+        assertThat(stats.getSequenceCalls() - callsBefore).isLessThanOrEqualTo(3);
+        assertThat(stats.getSaved()).isGreaterThan(0);
+    }
+
+    private List<Member> members(String prefix) {
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member(prefix + i, i % 100));
+        }
+        return members;
+    }
+}
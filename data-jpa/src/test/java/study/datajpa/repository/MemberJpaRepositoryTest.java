@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.entity.Member;
 
 import java.util.List;
@@ -123,6 +124,28 @@ public class MemberJpaRepositoryTest {
         assertThat(totalCount).isEqualTo(5);
     }
     
+    @Test
+    public void pagingByCursor() throws Exception {
+        // given
+        memberJpaRepository.save(new Member("member1", 200));
+        memberJpaRepository.save(new Member("member2", 200));
+        memberJpaRepository.save(new Member("member3", 200));
+        memberJpaRepository.save(new Member("member3", 200));
+        memberJpaRepository.save(new Member("member4", 200));
+
+        int age = 200;
+        int limit = 3;
+
+        // when
+        List<Member> first = memberJpaRepository.findByPageAfter(age, null, limit);
+        MemberCursor cursor = MemberCursor.decode(MemberCursor.of(first.get(limit - 1)).encode());
+        List<Member> second = memberJpaRepository.findByPageAfter(age, cursor, limit);
+
+        // then
+        assertThat(first).extracting("username").containsExactly("member4", "member3", "member3");
+        assertThat(second).extracting("username").containsExactly("member2", "member1");
+    }
+
     @Test
     public void bulkUpdate() throws Exception {
         // given
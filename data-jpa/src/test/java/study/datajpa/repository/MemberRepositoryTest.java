@@ -1,6 +1,11 @@
 package study.datajpa.repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -9,14 +14,21 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.repository.support.CountedPage;
+import study.datajpa.repository.support.CriteriaPlanCache;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -27,6 +39,8 @@ public class MemberRepositoryTest {
 
     @Autowired MemberRepository memberRepository;
     @Autowired TeamRepository teamRepository;
+    @Autowired CriteriaPlanCache criteriaPlanCache;
+    @Autowired MeterRegistry meterRegistry;
     @PersistenceContext
     EntityManager em;
 
@@ -129,6 +143,25 @@ public class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void streamMemberDto() throws Exception {
+        // given
+        Team team = new Team("teamStream");
+        teamRepository.save(team);
+        memberRepository.save(new Member("streamMember1", 10, team));
+        memberRepository.save(new Member("streamMember2", 10));
+
+        // when
+        List<MemberDto> result;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto()) {
+            result = stream.filter(dto -> dto.getUsername().startsWith("streamMember"))
+                    .collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(result).extracting("teamName").containsExactlyInAnyOrder("teamStream", null);
+    }
+
     @Test
     public void findByNames() throws Exception {
         // given
@@ -218,6 +251,53 @@ public class MemberRepositoryTest {
         assertThat(page.hasNext()).isTrue();    // 다음 페이지가 있는가?
     }
 
+    @Test
+    public void slice() throws Exception {
+        // given
+        for (int i = 1; i <= 5; i++) {
+            memberRepository.save(new Member("sliceMember" + i, 77));
+        }
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+
+        // when
+        Slice<Member> first = memberRepository.findSliceByAge(77, PageRequest.of(0, 3, Sort.by("username")));
+        Slice<Member> last = memberRepository.findSliceByAge(77, PageRequest.of(1, 3, Sort.by("username")));
+
+        // then
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(2); // count 쿼리 없이 슬라이스 당 한 번 (limit 4)
+        assertThat(first.getContent()).extracting("username").containsExactly("sliceMember1", "sliceMember2", "sliceMember3");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting("username").containsExactly("sliceMember4", "sliceMember5");
+        assertThat(last.hasNext()).isFalse();
+        assertThat(em.unwrap(Session.class).isReadOnly(first.getContent().get(0))).isTrue(); // 스냅샷 없음
+    }
+
+    @Test
+    public void pagingWithCountStrategy() throws Exception {
+        // given
+        memberRepository.save(new Member("member1", 300));
+        memberRepository.save(new Member("member2", 300));
+        memberRepository.save(new Member("member3", 300));
+        memberRepository.save(new Member("member4", 300));
+        memberRepository.save(new Member("member5", 300));
+
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+
+        // when
+        CountedPage<Member> page = memberRepository.findPageByAge(300, pageRequest);
+        memberRepository.save(new Member("member6", 300)); // insert 되면 캐시된 count는 무효화된다
+        CountedPage<Member> afterInsert = memberRepository.findPageByAge(300, pageRequest);
+
+        // then
+        assertThat(page.getContent()).extracting("username").containsExactly("member5", "member4", "member3");
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.isTotalEstimated()).isFalse();
+        assertThat(afterInsert.getTotalElements()).isEqualTo(6);
+    }
+
     @Test
     public void bulkUpdate() throws Exception {
         // given
@@ -282,6 +362,31 @@ public class MemberRepositoryTest {
         // then
     }
 
+    @Test
+    public void batchFetchTeam() throws Exception {
+        // given
+        List<String> names = Arrays.asList("batchMember1", "batchMember2", "batchMember3");
+        for (String name : names) {
+            Team team = new Team("batchTeam-" + name);
+            teamRepository.save(team);
+            memberRepository.save(new Member(name, 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+
+        // when
+        List<Member> members = memberRepository.findByNames(names);
+        for (Member member : members) {
+            member.getTeam().getName(); // 첫 번째 접근에서 3개 팀 프록시를 IN 쿼리 한 번으로 초기화
+        }
+
+        // then
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(2); // 회원 조회 1 + 팀 조회 1
+    }
+
     @Test
     public void queryHint() throws Exception {
         // given
@@ -340,6 +445,44 @@ public class MemberRepositoryTest {
     }
 
 
+    @Test
+    public void searchWithPlanCache() throws Exception {
+        // given
+        Team team = new Team("planTeam");
+        em.persist(team);
+        em.persist(new Member("planMember1", 0, team));
+        em.persist(new Member("planMember2", 0, team));
+        em.flush();
+        em.clear();
+
+        // when
+        List<Member> first = memberRepository.search(new MemberSearchCondition("planMember1", "planTeam"));
+        long hits = criteriaPlanCache.getHitCount();
+        List<Member> second = memberRepository.search(new MemberSearchCondition("planMember2", "planTeam")); // 값만 다르고 모양은 같다
+
+        // then
+        assertThat(first).extracting("username").containsExactly("planMember1");
+        assertThat(second).extracting("username").containsExactly("planMember2");
+        assertThat(criteriaPlanCache.getHitCount()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    public void claimBatch() throws Exception {
+        //given
+        memberRepository.save(new Member("claimMember", 10));
+        memberRepository.save(new Member("claimMember", 20));
+        memberRepository.save(new Member("claimMember", 30));
+        LocalDateTime expiredBefore = LocalDateTime.now().minusMinutes(5);
+        //when
+        int first = memberRepository.claimBatch(MemberSpec.username("claimMember"), 2, "worker1", expiredBefore);
+        int second = memberRepository.claimBatch(MemberSpec.username("claimMember"), 2, "worker2", expiredBefore);
+        //then
+        assertThat(first).isEqualTo(2);
+        assertThat(second).isEqualTo(1); // worker1이 가져간 row는 건너뛴다
+        assertThat(memberRepository.findClaimed("worker1")).extracting("age").containsExactly(10, 20);
+        assertThat(memberRepository.findClaimed("worker2")).extracting("age").containsExactly(30);
+    }
+
      @Test
      public void jpaEventBaseEntity() throws Exception{
          // given
@@ -368,7 +511,83 @@ public class MemberRepositoryTest {
 
      }
 
+    // 바이트코드 향상(dirty tracking) + @DynamicUpdate : 바뀐 필드와 @PreUpdate(Auditing)에서 채운 필드만 UPDATE 된다
+    // 실행된 UPDATE 문은 SqlStatementListener의 datajpa.sql 타이머(sql 태그)로 확인한다
+    @Test
+    public void dynamicUpdateWithDirtyTracking() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("dirtyMember", 30));
+        em.flush();
+        em.clear();
+        Map<String, Long> before = memberUpdateCounts();
+
+        // when
+        Member findMember = memberRepository.findById(member.getId()).get();
+        findMember.setUsername("dirtyMember2");
+        em.flush();
+        em.clear();
+
+        // then
+        Map<String, Long> after = memberUpdateCounts();
+        List<String> executed = after.keySet().stream()
+                .filter(sql -> after.get(sql) > before.getOrDefault(sql, 0L))
+                .collect(Collectors.toList());
+        System.out.println("executed = " + executed);
+        assertThat(executed).hasSize(1);
+        assertThat(executed.get(0))
+                .contains("username=?")
+                .contains("last_modified_date=?")
+                .doesNotContainPattern("[ ,]age=");
+
+        Member updated = memberRepository.findById(member.getId()).get();
+        assertThat(updated.getUsername()).isEqualTo("dirtyMember2");
+        assertThat(updated.getAge()).isEqualTo(30);
+    }
+
+    private Map<String, Long> memberUpdateCounts() {
+        return meterRegistry.find("datajpa.sql").tag("type", "update").timers().stream()
+                .filter(timer -> timer.getId().getTag("sql").startsWith("update member set"))
+                .collect(Collectors.toMap(timer -> timer.getId().getTag("sql"), Timer::count, Long::sum));
+    }
+
+    @Test
+    public void projections() throws Exception {
+        // given
+        Team team = new Team("projectionTeam");
+        em.persist(team);
+        Member member = new Member("projectionMember", 0, team);
+        em.persist(member);
+        em.flush();
+        em.clear();
 
+        // when
+        Optional<UsernameOnly> usernameOnly = memberRepository.findProjectionById(member.getId(), UsernameOnly.class);
+        List<UsernameOnlyDto> dtos = memberRepository.findProjectionsByUsername("projectionMember", UsernameOnlyDto.class);
+
+        // then
+        assertThat(usernameOnly).map(UsernameOnly::getUsername).contains("projectionMember");
+        assertThat(dtos).extracting("username").containsExactly("projectionMember");
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero(); // 영속성 컨텍스트에 엔티티가 올라오지 않는다
+    }
+
+    @Test
+    public void findMemberDtoPage() throws Exception {
+        // given
+        Team team = new Team("dtoPageTeam");
+        em.persist(team);
+        em.persist(new Member("dtoPageMember", 0, team));
+        em.flush();
+        em.clear();
+
+        // when
+        CountedPage<MemberDto> page = memberRepository.findMemberDtoPage(
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id")));
+
+        // then
+        assertThat(page.getContent()).extracting("username", "teamName")
+                .containsExactly(tuple("dtoPageMember", "dtoPageTeam"));
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(1);
+    }
 
     @Test
     public void QueryByExample() throws Exception {
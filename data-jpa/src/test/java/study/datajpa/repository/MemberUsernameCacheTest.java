@@ -0,0 +1,108 @@
+package study.datajpa.repository;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 쓰기 트랜잭션 안에서는 캐시를 거치지 않으므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다
+@SpringBootTest
+public class MemberUsernameCacheTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManagerFactory emf;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    public void setUp() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true); // 읽기 전용 트랜잭션에서는 캐시를 거친다
+    }
+
+    @Test
+    public void findByUsername() throws Exception {
+        // given
+        Member member1 = memberRepository.save(new Member("naturalMember", 500));
+        Member member2 = memberRepository.save(new Member("naturalMember", 501));
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        // when
+        List<Member> first = memberRepository.findByUsername("naturalMember");
+        long before = statistics.getPrepareStatementCount();
+        List<Member> second = memberRepository.findByUsername("naturalMember");
+
+        // then
+        assertThat(first).extracting("id").containsExactly(member1.getId(), member2.getId());
+        assertThat(second).extracting("id").containsExactly(member1.getId(), member2.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(before); // id 목록도, 엔티티도 캐시에서
+
+        // username 변경 : 예전 username과 새 username 모두 무효화
+        member2.setUsername("naturalMember2");
+        memberRepository.save(member2);
+        assertThat(memberRepository.findByUsername("naturalMember")).extracting("id").containsExactly(member1.getId());
+        assertThat(memberRepository.findByUsername("naturalMember2")).extracting("id").containsExactly(member2.getId());
+    }
+
+    @Test
+    public void returnTypesAndReadOnly() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("naturalReadOnly", 510));
+        memberRepository.findListByUsername("naturalReadOnly"); // id 목록, 엔티티 캐시
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+
+        // when
+        List<Member> list = memberRepository.findListByUsername("naturalReadOnly");
+        Member single = memberRepository.findMemberByUsername("naturalReadOnly");
+        Optional<Member> optional = memberRepository.findOptionalByUsername("naturalReadOnly");
+        boolean readOnly = readOnlyTransaction.execute(status -> {
+            Member found = memberRepository.findReadOnlyByUsername("naturalReadOnly");
+            return em.unwrap(Session.class).isReadOnly(found);
+        });
+
+        // then
+        assertThat(list).extracting("id").containsExactly(member.getId());
+        assertThat(single.getId()).isEqualTo(member.getId());
+        assertThat(optional).map(Member::getId).contains(member.getId());
+        assertThat(readOnly).isTrue(); // 스냅샷을 만들지 않는다
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(before);
+    }
+
+    @Test
+    public void findMemberByUsernameNotUnique() throws Exception {
+        // given
+        memberRepository.save(new Member("naturalDuplicate", 520));
+        memberRepository.save(new Member("naturalDuplicate", 521));
+
+        // when, then
+        assertThatThrownBy(() -> memberRepository.findMemberByUsername("naturalDuplicate"))
+                .isInstanceOf(IncorrectResultSizeDataAccessException.class);
+        assertThat(memberRepository.findMemberByUsername("naturalNone")).isNull();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createQuery("select m from Member m where m.username like 'natural%'", Member.class)
+                        .getResultList()
+                        .forEach(em::remove));
+    }
+}
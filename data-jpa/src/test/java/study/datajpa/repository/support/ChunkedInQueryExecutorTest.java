@@ -0,0 +1,88 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 트랜잭션 밖에서 호출해야 청크가 병렬로 실행된다
+@SpringBootTest(properties = "datajpa.in-query.chunk-size=2")
+public class ChunkedInQueryExecutorTest {
+
+    @Autowired ChunkedInQueryExecutor chunkedInQueryExecutor;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    EntityManager em;
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createQuery("select m from Member m where m.username like 'inQueryMember%'", Member.class)
+                        .getResultList()
+                        .forEach(em::remove));
+    }
+
+    @Test
+    public void chunksRunInParallelAndMergeInOrder() throws Exception {
+        // given
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        // when
+        List<String> result = chunkedInQueryExecutor.execute(Arrays.asList("a", "b", "c", "a", "d", "e"), chunk -> {
+            threads.add(Thread.currentThread().getName());
+            sleep(chunk.get(0).equals("a") ? 200 : 0); // 첫 청크가 가장 늦게 끝나도
+            return chunk.stream().map(String::toUpperCase).collect(Collectors.toList());
+        });
+
+        // then
+        assertThat(result).containsExactly("A", "B", "C", "D", "E"); // 중복 제거, 청크 순서 유지
+        assertThat(threads).doesNotContain(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void findByNamesChunked() throws Exception {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            members.add(new Member("inQueryMember" + i, i));
+        }
+        memberRepository.saveAllBatched(members);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            names.add("inQueryMember" + i);
+        }
+        names.add("inQueryMissing");
+
+        // when
+        List<Member> result = memberRepository.findByNamesChunked(names);
+
+        // then
+        assertThat(result).extracting("username").containsExactlyInAnyOrderElementsOf(names.subList(0, 5));
+        assertThat(memberRepository.findByNamesChunked(Collections.emptyList())).isEmpty();
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
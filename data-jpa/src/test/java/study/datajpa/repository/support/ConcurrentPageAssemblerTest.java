@@ -0,0 +1,63 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 트랜잭션 밖에서 호출해야 count가 별도 스레드에서 실행된다
+@SpringBootTest(properties = "datajpa.count.timeout-ms=500")
+public class ConcurrentPageAssemblerTest {
+
+    @Autowired ConcurrentPageAssembler pageAssembler;
+
+    @Test
+    public void countRunsConcurrently() throws Exception {
+        // given
+        String caller = Thread.currentThread().getName();
+        AtomicReference<String> countThread = new AtomicReference<>();
+
+        // when
+        CountedPage<String> page = pageAssembler.assemble(PageRequest.of(0, 2),
+                () -> Arrays.asList("a", "b"),
+                () -> {
+                    countThread.set(Thread.currentThread().getName());
+                    return TotalCount.exact(10);
+                });
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(10);
+        assertThat(page.isTotalEstimated()).isFalse();
+        assertThat(countThread.get()).isNotEqualTo(caller);
+    }
+
+    @Test
+    public void countTimeout() throws Exception {
+        // when
+        CountedPage<String> page = pageAssembler.assemble(PageRequest.of(1, 2),
+                () -> Arrays.asList("c", "d"),
+                () -> {
+                    sleep(3000);
+                    return TotalCount.exact(100);
+                });
+
+        // then
+        System.out.println("page = " + page);
+        assertThat(page.isTotalEstimated()).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(5); // offset 2 + content 2 + 1 : 최소한 다음 페이지는 있다고 본다
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "datajpa.count.mode=approximate")
+public class EstimatedTotalCountStrategyTest {
+
+    @Autowired TotalCountStrategy totalCountStrategy;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void unfilteredCountIsEstimated() throws Exception {
+        // when
+        CountedPage<?> page = memberRepository.findMemberPage(PageRequest.of(0, 3));
+        CountedPage<?> byAge = memberRepository.findPageByAge(10, PageRequest.of(0, 3));
+
+        // then
+        assertThat(totalCountStrategy).isInstanceOf(EstimatedTotalCountStrategy.class);
+        assertThat(page.isTotalEstimated()).isTrue(); // 조건 없는 count : 테이블 통계
+        assertThat(byAge.isTotalEstimated()).isFalse(); // 조건 있는 count : 정확한 count + 캐시
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 쓰기 트랜잭션 안에서는 member 테이블이 먼저 무효화되어 쿼리 캐시를 쓰지 않으므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다
+@SpringBootTest
+public class QueryCacheMetricsTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManagerFactory emf;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void queryCacheHitAndBulkInvalidation() throws Exception {
+        // given
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        memberRepository.findUsernameList();
+
+        // when
+        long hitBefore = statistics.getQueryCacheHitCount();
+        memberRepository.findUsernameList();
+
+        // then
+        assertThat(statistics.getQueryCacheHitCount() - hitBefore).isEqualTo(1);
+
+        // @Modifying 벌크 수정 : 바뀐 row가 없어도 member 테이블의 쿼리 캐시는 무효화된다
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.bulkAgePlus(Integer.MAX_VALUE));
+        long missBefore = statistics.getQueryCacheMissCount();
+        long hitAfterBulk = statistics.getQueryCacheHitCount();
+        memberRepository.findUsernameList();
+        assertThat(statistics.getQueryCacheMissCount() - missBefore).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hitAfterBulk);
+
+        // 쿼리 별 hit ratio 게이지
+        Gauge hitRatio = meterRegistry.find("hibernate.query.cache.hit.ratio")
+                .tag("query", "MemberRepository.findUsernameList")
+                .gauge();
+        assertThat(hitRatio).isNotNull();
+        assertThat(hitRatio.value()).isGreaterThan(0);
+    }
+}
@@ -0,0 +1,86 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 쓰기 트랜잭션 안에서는 count를 캐시하지 않으므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다
+@SpringBootTest
+public class TotalCountStrategyTest {
+
+    private static final int AGE = 930_000; // 다른 테스트 데이터와 겹치지 않는 나이
+
+    @Autowired TotalCountStrategy totalCountStrategy;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    EntityManager em;
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createQuery("select m from Member m where m.age >= :age", Member.class)
+                        .setParameter("age", AGE)
+                        .getResultList()
+                        .forEach(em::remove));
+    }
+
+    @Test
+    public void countIsCachedUntilMemberChanges() throws Exception {
+        // given
+        AtomicInteger queries = new AtomicInteger();
+        Object[] params = {AGE};
+
+        // when
+        TotalCount first = totalCountStrategy.count(Member.class, "test.count", params, () -> queries.incrementAndGet());
+        TotalCount second = totalCountStrategy.count(Member.class, "test.count", params, () -> queries.incrementAndGet());
+
+        // then
+        assertThat(first.isEstimated()).isFalse();
+        assertThat(second.getValue()).isEqualTo(1);
+        assertThat(queries.get()).isEqualTo(1); // 두 번째는 캐시
+
+        // 회원 저장 -> 무효화
+        memberRepository.save(new Member("countMember", AGE));
+        totalCountStrategy.count(Member.class, "test.count", params, () -> queries.incrementAndGet());
+        assertThat(queries.get()).isEqualTo(2);
+
+        // @Modifying 벌크 수정 -> 무효화
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> memberRepository.bulkAgePlus(AGE + 1000));
+        totalCountStrategy.count(Member.class, "test.count", params, () -> queries.incrementAndGet());
+        assertThat(queries.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void findPageByAge() throws Exception {
+        // given
+        for (int i = 1; i <= 5; i++) {
+            memberRepository.save(new Member("countMember" + i, AGE));
+        }
+        PageRequest pageRequest = PageRequest.of(0, 3);
+
+        // when
+        CountedPage<Member> page = memberRepository.findPageByAge(AGE, pageRequest);
+        memberRepository.save(new Member("countMember6", AGE));
+        CountedPage<Member> afterInsert = memberRepository.findPageByAge(AGE, pageRequest);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> memberRepository.bulkAgePlus(AGE));
+        CountedPage<Member> afterBulk = memberRepository.findPageByAge(AGE, pageRequest);
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(afterInsert.getTotalElements()).isEqualTo(6);
+        assertThat(afterBulk.getTotalElements()).isZero(); // 모두 AGE + 1
+    }
+}
@@ -0,0 +1,50 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.Test;
+import study.datajpa.entity.Member;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class UsernameIdCacheTest {
+
+    @Test
+    public void reverseMapIsBoundedByCache() throws Exception {
+        // given
+        UsernameIdCache cache = new UsernameIdCache(10, Duration.ofMinutes(10));
+
+        // when : username 1000개, username 마다 id 2개
+        for (long i = 0; i < 1000; i++) {
+            long id = i * 2;
+            cache.get("member" + i, key -> Arrays.asList(id, id + 1));
+        }
+
+        // then : 캐시에서 빠진 username의 id -> username 도 같이 지워진다
+        assertThat(cache.reverseEntryCount()).isLessThanOrEqualTo(20);
+    }
+
+    @Test
+    public void invalidateByPreviousUsername() throws Exception {
+        // given
+        UsernameIdCache cache = new UsernameIdCache(10, Duration.ofMinutes(10));
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("member", key -> {
+            loads.incrementAndGet();
+            return Arrays.asList(1L, 2L);
+        });
+
+        // when : id 1 회원의 username 변경
+        cache.onEntityChanged(new EntityChangedEvent(Member.class, 1L));
+        cache.get("member", key -> {
+            loads.incrementAndGet();
+            return Arrays.asList(2L);
+        });
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.reverseEntryCount()).isEqualTo(1); // id 2 -> member
+    }
+}
@@ -0,0 +1,45 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 청크마다 별도 트랜잭션으로 커밋되므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다
+@SpringBootTest
+class MemberBulkServiceTest {
+
+    @Autowired MemberBulkService memberBulkService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.findByNames(List.of("bulkMember1", "bulkMember2")).forEach(memberRepository::delete));
+    }
+
+    @Test
+    public void bulkAgePlus() throws Exception {
+        // given
+        memberRepository.save(new Member("bulkMember1", 1000));
+        memberRepository.save(new Member("bulkMember2", 1001));
+
+        // when
+        ChunkedUpdateResult result = memberBulkService.bulkAgePlus(1000);
+
+        // then
+        System.out.println("result = " + result + ", rows/s = " + result.getRowsPerSecond());
+        assertThat(result.getUpdatedRows()).isGreaterThanOrEqualTo(2);
+        List<Member> members = memberRepository.findByNames(List.of("bulkMember1", "bulkMember2"));
+        assertThat(members).extracting("age").containsExactlyInAnyOrder(1001, 1002);
+    }
+}
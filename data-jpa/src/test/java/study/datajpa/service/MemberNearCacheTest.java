@@ -0,0 +1,53 @@
+package study.datajpa.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 커밋 이후 무효화까지 확인하기 위해 테스트 트랜잭션(@Transactional)을 사용하지 않는다
+@SpringBootTest
+class MemberNearCacheTest {
+
+    @Autowired MemberNearCache memberNearCache;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    public void cacheAndInvalidate() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("nearMember", 400));
+        memberNearCache.findById(member.getId());
+        double hits = hits();
+
+        // when
+        MemberDto cached = memberNearCache.findById(member.getId()).get();
+
+        // then
+        assertThat(cached.getUsername()).isEqualTo("nearMember");
+        assertThat(hits()).isEqualTo(hits + 1);
+
+        // 수정 : 해당 회원만 무효화
+        member.setUsername("nearMember2");
+        memberRepository.save(member);
+        assertThat(memberNearCache.findById(member.getId())).map(MemberDto::getUsername).contains("nearMember2");
+
+        // 삭제
+        memberRepository.deleteById(member.getId());
+        assertThat(memberNearCache.findById(member.getId())).isEmpty();
+    }
+
+    private double hits() {
+        FunctionCounter counter = meterRegistry.find("cache.gets")
+                .tag("cache", "memberNearCache")
+                .tag("result", "hit")
+                .functionCounter();
+        return counter.count();
+    }
+}
@@ -0,0 +1,148 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 배치마다 커밋되므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다
+@SpringBootTest(properties = "datajpa.work-queue.batch-size=2")
+public class MemberWorkQueueTest {
+
+    private static final int ROWS = 10;
+    private static final int DONE = 100; // 처리한 회원은 나이에 DONE을 더해서 다시 조건에 걸리지 않게 한다
+
+    @Autowired MemberWorkQueue memberWorkQueue;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    EntityManager em;
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createQuery("select m from Member m where m.username like 'queueMember%'", Member.class)
+                        .getResultList()
+                        .forEach(em::remove));
+    }
+
+    @Test
+    public void processNext() throws Exception {
+        // given
+        Specification<Member> pending = seed("queueMember");
+        List<Long> processed = new ArrayList<>();
+
+        // when
+        int first = memberWorkQueue.processNext(pending, batch -> process(batch, processed));
+        int second = memberWorkQueue.processNext(pending, batch -> process(batch, processed));
+
+        // then : 처리한 회원은 다시 가져오지 않는다
+        assertThat(first).isEqualTo(2);
+        assertThat(second).isEqualTo(2);
+        assertThat(processed).hasSize(4).doesNotHaveDuplicates();
+        while (memberWorkQueue.processNext(pending, batch -> process(batch, processed)) > 0) {
+        }
+        assertThat(processed).hasSize(ROWS).doesNotHaveDuplicates();
+        assertThat(memberRepository.findByUsername("queueMember")).allMatch(member -> member.getAge() >= DONE);
+    }
+
+    @Test
+    public void concurrentWorkersDoNotBlock() throws Exception {
+        // given
+        Specification<Member> pending = seed("queueMemberConcurrent");
+        List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+        List<Long> worker1Batch = new ArrayList<>();
+        CountDownLatch worker1Claimed = new CountDownLatch(1);
+        CountDownLatch releaseWorker1 = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // when : worker1 은 배치를 가져간 뒤 트랜잭션을 연 채로 기다린다
+        Future<Integer> worker1 = executor.submit(() -> memberWorkQueue.processNext(pending, batch -> {
+            process(batch, processed);
+            batch.forEach(member -> worker1Batch.add(member.getId()));
+            worker1Claimed.countDown();
+            await(releaseWorker1);
+        }));
+        assertThat(worker1Claimed.await(10, TimeUnit.SECONDS)).isTrue();
+
+        List<Long> worker2Batch = new ArrayList<>();
+        Future<Integer> worker2 = executor.submit(() -> memberWorkQueue.processNext(pending, batch -> {
+            process(batch, processed);
+            batch.forEach(member -> worker2Batch.add(member.getId()));
+        }));
+
+        // then : worker1 의 트랜잭션이 열려 있는 동안 worker2 는 기다리지 않고 다른 배치를 처리한다
+        assertThat(worker2.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(worker1.isDone()).isFalse();
+        assertThat(worker2Batch).doesNotContainAnyElementsOf(worker1Batch);
+
+        releaseWorker1.countDown();
+        assertThat(worker1.get(10, TimeUnit.SECONDS)).isEqualTo(2);
+        executor.shutdown();
+
+        while (memberWorkQueue.processNext(pending, batch -> process(batch, processed)) > 0) {
+        }
+        assertThat(processed).hasSize(ROWS).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void failedBatchIsReleased() throws Exception {
+        // given
+        Specification<Member> pending = seed("queueMemberFailed");
+
+        // when
+        assertThatThrownBy(() -> memberWorkQueue.processNext(pending, batch -> {
+            throw new IllegalStateException("processing failed");
+        })).isInstanceOf(IllegalStateException.class);
+        List<Long> processed = new ArrayList<>();
+        int retried = memberWorkQueue.processNext(pending, batch -> process(batch, processed));
+
+        // then : 실패한 배치를 다시 가져간다
+        assertThat(retried).isEqualTo(2);
+        assertThat(processed).hasSize(2);
+    }
+
+    private Specification<Member> seed(String username) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member(username, i));
+        }
+        memberRepository.saveAllBatched(members);
+        return MemberSpec.username(username)
+                .and((root, query, builder) -> builder.lessThan(root.get("age"), DONE));
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(List<Member> batch, List<Long> processed) {
+        for (Member member : batch) {
+            member.setAge(member.getAge() + DONE); // 커밋될 때 UPDATE
+            processed.add(member.getId());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +25,10 @@ public class InitMember {
     static class InitMemberService {
         @PersistenceContext
         EntityManager em;
+        // hibernate.jdbc.batch_size 만큼 INSERT를 모아서 보내고, 그때마다 영속성 컨텍스트를 비운다
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+        int batchSize;
+
         @Transactional
         public void init() {
             Team teamA = new Team("teamA");
@@ -33,6 +38,10 @@ public class InitMember {
             for (int i = 0; i < 100; i++) {
                 Team selectedTeam = i % 2 == 0 ? teamA : teamB;
                 em.persist(new Member("member" + i, i, selectedTeam));
+                if ((i + 1) % batchSize == 0) {
+                    em.flush();
+                    em.clear(); // teamA, teamB는 준영속이 되지만 외래 키(team_id)만 쓰이므로 문제 없다
+                }
             }
         }
     }
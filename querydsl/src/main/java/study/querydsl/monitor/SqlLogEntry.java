@@ -0,0 +1,16 @@
+package study.querydsl.monitor;
+
+import lombok.Getter;
+
+@Getter
+public class SqlLogEntry {
+    private final String sql; // 바인딩 파라미터는 남기지 않는다 (? 그대로)
+    private final double elapsedMillis;
+    private final boolean slow;
+
+    public SqlLogEntry(String sql, double elapsedMillis, boolean slow) {
+        this.sql = sql;
+        this.elapsedMillis = elapsedMillis;
+        this.slow = slow;
+    }
+}
@@ -0,0 +1,34 @@
+package study.querydsl.monitor;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// dataSource 빈을 datasource-proxy로 감싸서 SqlStatementListener를 연결 (org.hibernate.SQL 로그 대신 샘플링 로그)
+@Configuration
+@ConditionalOnProperty(name = "querydsl.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlLoggingConfig {
+
+    // BeanPostProcessor는 다른 빈보다 먼저 만들어지므로 static + 리스너는 지연 조회
+    @Bean
+    public static BeanPostProcessor sqlLoggingPostProcessor(ObjectProvider<SqlStatementListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(listener.getObject())
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package study.querydsl.monitor;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// JDBC 실행마다 호출되는 datasource-proxy 리스너 (p6spy 대체)
+// - slow-threshold-ms 이상 걸린 SQL은 전부, 나머지는 sample-rate 비율만 AsyncSqlLogger로 넘긴다
+@Component
+public class SqlStatementListener implements QueryExecutionListener {
+
+    private final ThreadLocal<Long> startNanos = new ThreadLocal<>();
+    private final AsyncSqlLogger sqlLogger;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public SqlStatementListener(AsyncSqlLogger sqlLogger,
+                                @Value("${querydsl.sql.log.sample-rate:0.01}") double sampleRate,
+                                @Value("${querydsl.sql.log.slow-threshold-ms:100}") long slowThresholdMillis) {
+        this.sqlLogger = sqlLogger;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        startNanos.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = startNanos.get();
+        startNanos.remove();
+        if (start == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        boolean slow = elapsed >= slowThresholdNanos;
+        if (slow || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            // 배치 실행은 같은 SQL이 여러 번 들어오므로 첫 번째 SQL만 남긴다
+            sqlLogger.log(new SqlLogEntry(queryInfoList.get(0).getQuery(), elapsed / 1_000_000.0, slow));
+        }
+    }
+}